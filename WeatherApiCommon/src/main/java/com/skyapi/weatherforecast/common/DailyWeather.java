@@ -28,6 +28,18 @@ public class DailyWeather {
 		return copy;
 	}
 	
+	public boolean hasSameDataAs(DailyWeather other) {
+		return minTemp == other.minTemp && maxTemp == other.maxTemp 
+				&& precipitation == other.precipitation && Objects.equals(status, other.status);
+	}
+	
+	public void copyDataFrom(DailyWeather other) {
+		setMinTemp(other.getMinTemp());
+		setMaxTemp(other.getMaxTemp());
+		setPrecipitation(other.getPrecipitation());
+		setStatus(other.getStatus());
+	}
+	
 	public DailyWeatherId getId() {
 		return id;
 	}
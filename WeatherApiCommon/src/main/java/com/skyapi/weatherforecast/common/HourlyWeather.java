@@ -106,6 +106,17 @@ public class HourlyWeather {
 		return Objects.equals(id, other.id);
 	}
 	
+	public boolean hasSameDataAs(HourlyWeather other) {
+		return temperature == other.temperature && precipitation == other.precipitation
+				&& Objects.equals(status, other.status);
+	}
+	
+	public void copyDataFrom(HourlyWeather other) {
+		setTemperature(other.getTemperature());
+		setPrecipitation(other.getPrecipitation());
+		setStatus(other.getStatus());
+	}
+	
 	public HourlyWeather getShallowCopy() {
 		HourlyWeather copy = new HourlyWeather();
 		copy.setId(this.getId());
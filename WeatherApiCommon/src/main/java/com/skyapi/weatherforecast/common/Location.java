@@ -37,6 +37,15 @@ public class Location {
 	
 	private boolean trashed;
 	
+	// IANA time zone ID, e.g. America/New_York
+	@Column(length = 40)
+	private String timeZone;
+	
+	// WGS 84 degrees, null if the location has not been geocoded
+	private Double latitude;
+	
+	private Double longitude;
+	
 	@OneToOne(mappedBy = "location", cascade = CascadeType.ALL)
 	@PrimaryKeyJoinColumn
 	private RealtimeWeather realtimeWeather;
@@ -69,6 +78,19 @@ public class Location {
 		this.enabled = enabled;
 	}
 	
+	public Location(String code, String cityName, String regionName, String countryName, String countryCode, boolean enabled,
+			String timeZone) {
+		this(code, cityName, regionName, countryName, countryCode, enabled);
+		this.timeZone = timeZone;
+	}
+	
+	public Location(String code, String cityName, String regionName, String countryName, String countryCode, boolean enabled,
+			String timeZone, Double latitude, Double longitude) {
+		this(code, cityName, regionName, countryName, countryCode, enabled, timeZone);
+		this.latitude = latitude;
+		this.longitude = longitude;
+	}
+	
 	public String getCode() {
 		return code;
 	}
@@ -125,6 +147,30 @@ public class Location {
 		this.trashed = trashed;
 	}
 
+	public String getTimeZone() {
+		return timeZone;
+	}
+
+	public void setTimeZone(String timeZone) {
+		this.timeZone = timeZone;
+	}
+
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public void setLatitude(Double latitude) {
+		this.latitude = latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	public void setLongitude(Double longitude) {
+		this.longitude = longitude;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(code);
@@ -182,7 +228,10 @@ public class Location {
 		setRegionName(another.getRegionName());
 		setCountryCode(another.getCountryCode());
 		setCountryName(another.getCountryName());
-		setEnabled(another.isEnabled());		
+		setEnabled(another.isEnabled());
+		setTimeZone(another.getTimeZone());
+		setLatitude(another.getLatitude());
+		setLongitude(another.getLongitude());
 	}
 	
 	public void copyAllFieldsFrom(Location another) {
@@ -102,6 +102,11 @@ public class RealtimeWeather {
 		this.location = location;
 	}
 
+	public boolean hasSameDataAs(RealtimeWeather other) {
+		return temperature == other.temperature && humidity == other.humidity && precipitation == other.precipitation
+				&& windSpeed == other.windSpeed && Objects.equals(status, other.status);
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(locationCode);
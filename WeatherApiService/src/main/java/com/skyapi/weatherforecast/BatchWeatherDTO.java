@@ -0,0 +1,48 @@
+package com.skyapi.weatherforecast;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.hateoas.RepresentationModel;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+
+// response of a batch GET: weather by location code in request order, and the codes that had none
+@JsonPropertyOrder({"results", "errors"})
+public class BatchWeatherDTO<T> extends RepresentationModel<BatchWeatherDTO<T>> {
+	
+	private Map<String, T> results = new LinkedHashMap<>();
+	
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	private Map<String, String> errors = new LinkedHashMap<>();
+
+	public Map<String, T> getResults() {
+		return results;
+	}
+
+	public void setResults(Map<String, T> results) {
+		this.results = results;
+	}
+
+	public Map<String, String> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(Map<String, String> errors) {
+		this.errors = errors;
+	}
+	
+	public void addResult(String locationCode, T result) {
+		results.put(locationCode, result);
+	}
+	
+	public void addError(String locationCode, String message) {
+		errors.put(locationCode, message);
+	}
+	
+	public void addNotFound(String locationCode) {
+		addError(locationCode, new LocationNotFoundException(locationCode).getMessage());
+	}
+}
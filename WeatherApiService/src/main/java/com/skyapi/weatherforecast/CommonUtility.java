@@ -1,9 +1,12 @@
 package com.skyapi.weatherforecast;
 
-import jakarta.servlet.http.HttpServletRequest;
+import java.util.Date;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 public class CommonUtility {
 	
@@ -21,4 +24,38 @@ public class CommonUtility {
 		
 		return ip;
 	}
+	
+	public static HttpHeaders getMergeCountHeaders(ForecastMergeResult<?> result) {
+		
+		HttpHeaders headers = new HttpHeaders();
+		
+		headers.add("X-Forecast-Inserted", String.valueOf(result.getInsertedCount()));
+		headers.add("X-Forecast-Updated", String.valueOf(result.getUpdatedCount()));
+		headers.add("X-Forecast-Deleted", String.valueOf(result.getDeletedCount()));
+		headers.add("X-Forecast-Unchanged", String.valueOf(result.getUnchangedCount()));
+		headers.add("X-Data-Unchanged", String.valueOf(!result.hasChanges()));
+		
+		LOGGER.info("Forecast merged: " + result);
+		
+		return headers;
+	}
+	
+	// If-None-Match takes precedence, and the ETag is only known once the body is rendered
+	public static boolean isNotModifiedSince(HttpServletRequest request, Date lastModified) {
+		
+		if (lastModified == null || request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+			return false;
+		}
+		
+		long ifModifiedSince;
+		
+		try {
+			ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+		} catch (IllegalArgumentException ex) {
+			return false;
+		}
+		
+		// HTTP dates have a precision of seconds
+		return ifModifiedSince >= 0 && lastModified.getTime() / 1000 * 1000 <= ifModifiedSince;
+	}
 }
\ No newline at end of file
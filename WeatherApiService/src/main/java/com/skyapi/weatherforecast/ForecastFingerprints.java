@@ -0,0 +1,117 @@
+package com.skyapi.weatherforecast;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skyapi.weatherforecast.location.LocationChangedEvent;
+
+// content fingerprints of the stored hourly and daily forecast of each location, so that a PUT
+// resending the stored data is answered without loading or writing any row.
+// The memo only sees writes made through this process: enable it on single-instance deployments
+// where nothing else writes the forecast tables. Otherwise the merge compares against the stored rows.
+@Component
+public class ForecastFingerprints {
+	
+	public enum Kind { HOURLY, DAILY }
+	
+	private boolean enabled;
+	
+	private Cache<String, String> cache;
+	
+	// bumped when a write starts: the fingerprint of a write that was overtaken by another is not stored
+	private Map<String, Long> generations = new ConcurrentHashMap<>();
+
+	public ForecastFingerprints(@Value("${weather.forecast-fingerprint.max-locations:10000}") long maxLocations,
+			@Value("${weather.forecast-fingerprint.ttl-minutes:60}") long ttlMinutes,
+			@Value("${weather.forecast-fingerprint.enabled:false}") boolean enabled) {
+		this.enabled = enabled;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxLocations)
+				.expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+				.build();
+	}
+	
+	// independent of the order of the rows; rowData must include the key of the row
+	public static <T> String of(List<T> rows, Function<T, String> rowData) {
+		MessageDigest digest;
+		
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+		
+		rows.stream().map(rowData).sorted().forEach(data -> {
+			digest.update(data.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+		});
+		
+		return HexFormat.of().formatHex(digest.digest());
+	}
+	
+	public boolean matches(Kind kind, String locationCode, String fingerprint) {
+		return enabled && fingerprint.equals(cache.getIfPresent(key(kind, locationCode)));
+	}
+	
+	// to be called before the stored forecast is modified, returns the generation to store under
+	public long beginUpdate(Kind kind, String locationCode) {
+		String key = key(kind, locationCode);
+		cache.invalidate(key);
+		
+		return generations.merge(key, 1L, Long::sum);
+	}
+	
+	// stored once the surrounding transaction has committed, if any
+	public void put(Kind kind, String locationCode, long generation, String fingerprint) {
+		String key = key(kind, locationCode);
+		
+		Runnable store = () -> {
+			if (enabled && generation == generations.getOrDefault(key, 0L)) {
+				cache.put(key, fingerprint);
+			}
+		};
+		
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					store.run();
+				}
+			});
+		} else {
+			store.run();
+		}
+	}
+	
+	public void evict(String locationCode) {
+		for (Kind kind : Kind.values()) {
+			beginUpdate(kind, locationCode);
+		}
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		evict(event.getCode());
+	}
+	
+	// MySQL compares codes with a case-insensitive collation, nyc_usa and NYC_USA are the same forecast
+	private String key(Kind kind, String locationCode) {
+		return kind + ":" + locationCode.toUpperCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,91 @@
+package com.skyapi.weatherforecast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ForecastMergeResult<T> {
+	
+	// the forecast after the merge, in request order: stored rows where they existed, new rows otherwise
+	private List<T> forecast = new ArrayList<>();
+	
+	private List<T> inserted = new ArrayList<>();
+	
+	private List<T> updated = new ArrayList<>();
+	
+	private List<T> deleted = new ArrayList<>();
+	
+	private int unchangedCount;
+	
+	public ForecastMergeResult() {
+		
+	}
+	
+	// the request matched the stored forecast without being merged against it
+	public static <T> ForecastMergeResult<T> allUnchanged(List<T> rows) {
+		ForecastMergeResult<T> result = new ForecastMergeResult<>();
+		rows.forEach(result::unchanged);
+		
+		return result;
+	}
+
+	public List<T> getForecast() {
+		return forecast;
+	}
+
+	public List<T> getInserted() {
+		return inserted;
+	}
+
+	public List<T> getUpdated() {
+		return updated;
+	}
+
+	public List<T> getDeleted() {
+		return deleted;
+	}
+	
+	public int getInsertedCount() {
+		return inserted.size();
+	}
+	
+	public int getUpdatedCount() {
+		return updated.size();
+	}
+	
+	public int getDeletedCount() {
+		return deleted.size();
+	}
+
+	public int getUnchangedCount() {
+		return unchangedCount;
+	}
+	
+	public boolean hasChanges() {
+		return !inserted.isEmpty() || !updated.isEmpty() || !deleted.isEmpty();
+	}
+	
+	void unchanged(T row) {
+		forecast.add(row);
+		unchangedCount++;
+	}
+	
+	void updated(T row) {
+		forecast.add(row);
+		updated.add(row);
+	}
+	
+	void inserted(T row) {
+		forecast.add(row);
+		inserted.add(row);
+	}
+	
+	void deleted(T row) {
+		deleted.add(row);
+	}
+
+	@Override
+	public String toString() {
+		return "ForecastMergeResult [inserted=" + getInsertedCount() + ", updated=" + getUpdatedCount() 
+				+ ", deleted=" + getDeletedCount() + ", unchanged=" + unchangedCount + "]";
+	}
+}
@@ -0,0 +1,63 @@
+package com.skyapi.weatherforecast;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+// reconciles the stored forecast of a location with the one in a request, keyed by id:
+// stored rows missing from the request are deleted, new ones inserted, and stored rows are
+// only modified (in place, so the persistence context flushes just those) when their data differs
+public class ForecastMerger {
+	
+	public static <K, T> ForecastMergeResult<T> merge(List<T> stored, List<T> incoming, Function<T, K> keyFunction,
+			BiPredicate<T, T> sameData, BiConsumer<T, T> copyData) {
+		
+		Map<K, T> storedByKey = new HashMap<>(stored.size() * 2);
+		
+		for (T row : stored) {
+			storedByKey.put(keyFunction.apply(row), row);
+		}
+		
+		ForecastMergeResult<T> result = new ForecastMergeResult<>();
+		
+		for (T row : incoming) {
+			T storedRow = storedByKey.remove(keyFunction.apply(row));
+			
+			if (storedRow == null) {
+				result.inserted(row);
+				
+			} else if (sameData.test(storedRow, row)) {
+				result.unchanged(storedRow);
+				
+			} else {
+				copyData.accept(storedRow, row);
+				result.updated(storedRow);
+			}
+		}
+		
+		storedByKey.values().forEach(result::deleted);
+		
+		return result;
+	}
+	
+	// merge() expects every key at most once in the request: a repeated new key would be inserted
+	// twice and fail on the primary key, so the controllers reject such requests up front
+	public static <K, T> K findDuplicateKey(List<T> incoming, Function<T, K> keyFunction) {
+		Set<K> keys = new HashSet<>(incoming.size() * 2);
+		
+		for (T row : incoming) {
+			K key = keyFunction.apply(row);
+			
+			if (!keys.add(key)) {
+				return key;
+			}
+		}
+		
+		return null;
+	}
+}
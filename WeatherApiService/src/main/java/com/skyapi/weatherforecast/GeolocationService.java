@@ -2,11 +2,25 @@ package com.skyapi.weatherforecast;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.ip2location.IP2Location;
 import com.ip2location.IPResult;
 import com.skyapi.weatherforecast.common.Location;
@@ -17,23 +31,210 @@ public class GeolocationService {
 	
 	private String DBPath = "/ip2locdb/IP2LOCATION-LITE-DB3.BIN";
 	
-	private IP2Location ipLocator = new IP2Location();
+	private String DBFile;
+
+	private boolean watchDBFile;
+
+	private boolean compactEngine;
+
+	// replaced as a whole on reload, so readers always see a consistent locator/version pair
+	private volatile LoadedDatabase database;
+
+	private AtomicLong databaseGenerations = new AtomicLong();
+
+	// keyed by the generation of the database that answered, so a lookup still running on the
+	// previous database when reload() clears the cache stores its result under a dead key
+	private Cache<CacheKey, Location> locationCache;
+
+	public GeolocationService(@Value("${geolocation.db.file:}") String dbFile,
+			@Value("${geolocation.db.watch:false}") boolean watchDBFile,
+			@Value("${geolocation.engine:library}") String engine,
+			@Value("${geolocation.cache.max-size:10000}") long cacheMaxSize,
+			@Value("${geolocation.cache.ttl-minutes:60}") long cacheTtlMinutes) {
+		this.DBFile = dbFile;
+		this.watchDBFile = watchDBFile;
+		this.compactEngine = "compact".equalsIgnoreCase(engine);
 
-	public GeolocationService() {
 		try {
-			InputStream inputStream = getClass().getResourceAsStream(DBPath);
-			byte[] data = inputStream.readAllBytes();
-			ipLocator.Open(data);
-			inputStream.close();			
+			database = openDatabase();
 		} catch (IOException ex) {
 			LOGGER.error(ex.getMessage(), ex);
 		}
+
+		locationCache = Caffeine.newBuilder()
+				.maximumSize(cacheMaxSize)
+				.expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+				.recordStats()
+				.build();
 	}
 	
 	public Location getLocation(String ipAddress) throws GeolocationException {
+		LoadedDatabase current = database;
+
+		if (current == null) {
+			throw new GeolocationException("IP database is not loaded");
+		}
+
+		// failed lookups throw from the mapping function, so they are never cached
+		return locationCache.get(new CacheKey(current.generation(), ipAddress), key -> queryLocation(current, ipAddress));
+	}
+
+	public CacheStats getCacheStats() {
+		return locationCache.stats();
+	}
+
+	public long getCacheSize() {
+		return locationCache.estimatedSize();
+	}
+
+	public void clearCache() {
+		locationCache.invalidateAll();
+
+		LOGGER.info("Geolocation cache cleared");
+	}
+
+	public String getDatabaseVersion() {
+		LoadedDatabase current = database;
+		return current != null ? current.version() : null;
+	}
+
+	public Date getDatabaseLoadedAt() {
+		LoadedDatabase current = database;
+		return current != null ? current.loadedAt() : null;
+	}
+
+	public String getDatabaseSource() {
+		LoadedDatabase current = database;
+		return current != null ? current.source() : null;
+	}
+
+	public synchronized void reload() throws IOException {
+		LoadedDatabase newDatabase = openDatabase();
+
+		// the previous locator is not closed: in-flight lookups may still hold it,
+		// and its buffers are released once it becomes unreachable
+		database = newDatabase;
+
+		clearCache();
+
+		LOGGER.info("IP2Location database reloaded, version " + newDatabase.version());
+	}
+
+	@Scheduled(fixedDelayString = "${geolocation.db.watch-interval-ms:60000}")
+	public void reloadIfDatabaseFileChanged() {
+
+		if (!watchDBFile || DBFile == null || DBFile.isBlank()) {
+			return;
+		}
 		
 		try {
-			IPResult result = ipLocator.IPQuery(ipAddress);
+			Path path = Path.of(DBFile);
+
+			if (!Files.isReadable(path)) {
+				return;
+			}
+
+			LoadedDatabase current = database;
+			long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+			if (current == null || lastModified != current.fileLastModified()) {
+				reload();
+			}
+
+		} catch (IOException ex) {
+			LOGGER.error("Failed to reload IP2Location database from " + DBFile, ex);
+		}
+	}
+
+	private LoadedDatabase openDatabase() throws IOException {
+		IP2Location locator = new IP2Location();
+
+		if (DBFile != null && !DBFile.isBlank()) {
+			Path path = Path.of(DBFile);
+
+			if (Files.isReadable(path)) {
+				long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+				byte[] header;
+
+				try (InputStream inputStream = Files.newInputStream(path)) {
+					header = inputStream.readNBytes(5);
+				}
+
+				// read-only memory mapping: the pages live in the OS page cache and are shared
+				// by every JVM on the host instead of being copied onto each heap.
+				// Updates should replace the file (e.g. mv), not overwrite the mapped one in place.
+				locator.Open(DBFile, true);
+
+				LOGGER.info("IP2Location database memory-mapped from " + DBFile);
+
+				IPRangeIndex rangeIndex = null;
+
+				if (compactEngine) {
+					try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+						rangeIndex = buildRangeIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+					}
+				}
+
+				return new LoadedDatabase(databaseGenerations.incrementAndGet(), locator, rangeIndex, readVersion(header), 
+						new Date(), DBFile, lastModified);
+			}
+
+			LOGGER.warn("IP2Location database file " + DBFile + " is not readable, falling back to classpath resource " + DBPath);
+		}
+
+		byte[] data;
+
+		try (InputStream inputStream = getClass().getResourceAsStream(DBPath)) {
+
+			if (inputStream == null) {
+				throw new IOException("IP2Location database not found on classpath: " + DBPath);
+			}
+
+			data = inputStream.readAllBytes();
+		}
+
+		locator.Open(data);
+
+		LOGGER.info("IP2Location database loaded from classpath resource " + DBPath);
+
+		IPRangeIndex rangeIndex = compactEngine ? buildRangeIndex(ByteBuffer.wrap(data)) : null;
+
+		return new LoadedDatabase(databaseGenerations.incrementAndGet(), locator, rangeIndex, readVersion(Arrays.copyOf(data, 5)), 
+				new Date(), "classpath:" + DBPath, 0);
+	}
+
+	private IPRangeIndex buildRangeIndex(ByteBuffer data) throws IOException {
+		long start = System.currentTimeMillis();
+
+		IPRangeIndex rangeIndex = IPRangeIndex.build(data);
+
+		LOGGER.info("IP range index built with " + rangeIndex.getRangeCount() + " ranges and "
+				+ rangeIndex.getLocationCount() + " distinct locations in " + (System.currentTimeMillis() - start) + " ms");
+
+		return rangeIndex;
+	}
+
+	private String readVersion(byte[] header) {
+		// BIN header: database type, column count, then year (2 digits), month and day of the release
+		if (header.length < 5) {
+			return "unknown";
+		}
+
+		return String.format("20%02d-%02d-%02d", header[2] & 0xFF, header[3] & 0xFF, header[4] & 0xFF);
+	}
+
+	private Location queryLocation(LoadedDatabase current, String ipAddress) throws GeolocationException {
+		if (current.rangeIndex() != null) {
+			Location location = current.rangeIndex().lookup(ipAddress);
+
+			if (location != null) {
+				return location;
+			}
+		}
+
+		try {
+			IPResult result = current.locator().IPQuery(ipAddress);
 			
 			if (!"OK".equals(result.getStatus())) {
 				throw new GeolocationException("Geolocation failed with status: " + result.getStatus());
@@ -49,4 +250,9 @@ public class GeolocationService {
 		
 	}
 	
-}
\ No newline at end of file
+	private record LoadedDatabase(long generation, IP2Location locator, IPRangeIndex rangeIndex, String version, Date loadedAt, 
+			String source, long fileLastModified) { }
+	
+	private record CacheKey(long generation, String ipAddress) { }
+
+}
@@ -0,0 +1,187 @@
+package com.skyapi.weatherforecast;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.skyapi.weatherforecast.common.Location;
+
+// IPv4 ranges of an IP2Location BIN database (DB3 or higher) copied into primitive arrays:
+// sorted range starts plus an index into a dictionary of shared Location instances,
+// so a lookup is a binary search that allocates nothing
+public class IPRangeIndex {
+
+	private static final int MIN_DB_TYPE = 3;
+
+	private static final int COUNTRY_OFFSET = 4;
+	private static final int REGION_OFFSET = 8;
+	private static final int CITY_OFFSET = 12;
+
+	// range starts XOR Integer.MIN_VALUE, so that signed int order matches unsigned address order
+	private final int[] rangeStarts;
+
+	private final int[] rangeLocations;
+
+	private final Location[] locations;
+
+	private IPRangeIndex(int[] rangeStarts, int[] rangeLocations, Location[] locations) {
+		this.rangeStarts = rangeStarts;
+		this.rangeLocations = rangeLocations;
+		this.locations = locations;
+	}
+
+	public static IPRangeIndex build(ByteBuffer database) throws IOException {
+		ByteBuffer db = database.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+		int dbType = db.get(0) & 0xFF;
+		int dbColumns = db.get(1) & 0xFF;
+
+		if (dbType < MIN_DB_TYPE) {
+			throw new IOException("IP2Location database type DB" + dbType + " has no region/city data");
+		}
+
+		int ipv4Count = db.getInt(5);
+		int ipv4Base = db.getInt(9) - 1;
+		int rowSize = dbColumns * 4;
+
+		int[] rangeStarts = new int[ipv4Count];
+		int[] rangeLocations = new int[ipv4Count];
+
+		Map<Integer, String> strings = new HashMap<>();
+		Map<Long, Map<Integer, Integer>> dictionary = new HashMap<>();
+		List<Location> locations = new ArrayList<>();
+
+		for (int i = 0; i < ipv4Count; i++) {
+			int row = ipv4Base + i * rowSize;
+
+			int countryPointer = db.getInt(row + COUNTRY_OFFSET);
+			int regionPointer = db.getInt(row + REGION_OFFSET);
+			int cityPointer = db.getInt(row + CITY_OFFSET);
+
+			Map<Integer, Integer> byCity = dictionary.computeIfAbsent(
+					((long) countryPointer << 32) | (regionPointer & 0xFFFFFFFFL), key -> new HashMap<>());
+
+			Integer locationIndex = byCity.get(cityPointer);
+
+			if (locationIndex == null) {
+				locationIndex = locations.size();
+
+				locations.add(new Location(
+						readString(db, cityPointer, strings),
+						readString(db, regionPointer, strings),
+						readString(db, countryPointer + 3, strings),
+						readString(db, countryPointer, strings)));
+
+				byCity.put(cityPointer, locationIndex);
+			}
+
+			rangeStarts[i] = db.getInt(row) ^ Integer.MIN_VALUE;
+			rangeLocations[i] = locationIndex;
+		}
+
+		return new IPRangeIndex(rangeStarts, rangeLocations, locations.toArray(new Location[0]));
+	}
+
+	// returns null for anything but a dotted-quad IPv4 address, the caller falls back to the library
+	public Location lookup(String ipAddress) {
+		long address = parseIPv4(ipAddress);
+
+		if (address < 0) {
+			return null;
+		}
+
+		// same as the library: the broadcast address belongs to the last range
+		if (address == 0xFFFFFFFFL) {
+			address--;
+		}
+
+		int index = Arrays.binarySearch(rangeStarts, (int) address ^ Integer.MIN_VALUE);
+
+		if (index < 0) {
+			index = -index - 2;
+		}
+
+		if (index < 0) {
+			return null;
+		}
+
+		return locations[rangeLocations[index]];
+	}
+
+	public int getRangeCount() {
+		return rangeStarts.length;
+	}
+
+	public int getLocationCount() {
+		return locations.length;
+	}
+
+	private static String readString(ByteBuffer db, int pointer, Map<Integer, String> strings) {
+		return strings.computeIfAbsent(pointer, position -> {
+			int length = db.get(position) & 0xFF;
+			byte[] bytes = new byte[length];
+
+			db.get(position + 1, bytes);
+
+			return new String(bytes, StandardCharsets.UTF_8);
+		});
+	}
+
+	private static long parseIPv4(String ipAddress) {
+		if (ipAddress == null) {
+			return -1;
+		}
+
+		int length = ipAddress.length();
+
+		if (length < 7 || length > 15) {
+			return -1;
+		}
+
+		long address = 0;
+		int octet = 0;
+		int digits = 0;
+		int dots = 0;
+
+		for (int i = 0; i < length; i++) {
+			char c = ipAddress.charAt(i);
+
+			if (c == '.') {
+				if (digits == 0 || ++dots > 3) {
+					return -1;
+				}
+
+				address = (address << 8) | octet;
+				octet = 0;
+				digits = 0;
+
+			} else if (c >= '0' && c <= '9') {
+				// leading zeros are ambiguous (octal in some parsers), leave them to the library
+				if (digits == 1 && octet == 0) {
+					return -1;
+				}
+
+				octet = octet * 10 + (c - '0');
+
+				if (++digits > 3 || octet > 255) {
+					return -1;
+				}
+
+			} else {
+				return -1;
+			}
+		}
+
+		if (dots != 3 || digits == 0) {
+			return -1;
+		}
+
+		return (address << 8) | octet;
+	}
+}
@@ -0,0 +1,49 @@
+package com.skyapi.weatherforecast;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// location codes of a batch GET (?codes=A,B,C) and the chunks they are queried in
+public class LocationCodeBatch {
+	
+	public static final int MAX_CODES = 200;
+	
+	// bounds the IN list of a single statement
+	public static final int CHUNK_SIZE = 50;
+	
+	public static List<String> parse(String codes) throws BadRequestException {
+		Set<String> distinctCodes = new LinkedHashSet<>();
+		
+		for (String code : codes.split(",")) {
+			if (!code.isBlank()) {
+				distinctCodes.add(code.trim());
+			}
+		}
+		
+		if (distinctCodes.isEmpty()) {
+			throw new BadRequestException("At least one location code is required");
+		}
+		
+		if (distinctCodes.size() > MAX_CODES) {
+			throw new BadRequestException("At most " + MAX_CODES + " location codes are allowed per request");
+		}
+		
+		return new ArrayList<>(distinctCodes);
+	}
+	
+	public static <T> List<List<T>> chunks(List<T> items) {
+		return chunks(items, CHUNK_SIZE);
+	}
+	
+	public static <T> List<List<T>> chunks(List<T> items, int chunkSize) {
+		List<List<T>> chunks = new ArrayList<>();
+		
+		for (int from = 0; from < items.size(); from += chunkSize) {
+			chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+		}
+		
+		return chunks;
+	}
+}
@@ -0,0 +1,31 @@
+package com.skyapi.weatherforecast;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+
+@Configuration
+@ConditionalOnProperty(name = "weather.ip-redirect.enabled", havingValue = "true")
+public class LocationRedirectConfig {
+
+	@Bean
+	public FilterRegistrationBean<LocationRedirectFilter> locationRedirectFilter(GeolocationService geolocationService, 
+			LocationCodeIndex locationCodeIndex, @Value("${weather.ip-redirect.mode:redirect}") String mode) {
+		
+		LocationRedirectFilter filter = new LocationRedirectFilter(geolocationService, locationCodeIndex, 
+				LocationRedirectFilter.Mode.valueOf(mode.toUpperCase()));
+		
+		FilterRegistrationBean<LocationRedirectFilter> registration = new FilterRegistrationBean<>(filter);
+		
+		registration.addUrlPatterns("/v1/realtime", "/v1/hourly", "/v1/daily", "/v1/full");
+		
+		// ahead of the response cache, which then serves the forwarded request
+		registration.setOrder(0);
+		
+		return registration;
+	}
+}
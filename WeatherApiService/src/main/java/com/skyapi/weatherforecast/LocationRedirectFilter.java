@@ -0,0 +1,89 @@
+package com.skyapi.weatherforecast;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// sends GETs of the IP-based weather endpoints to the per-location URL of the client's city,
+// so that the response is shared by every client there (CDN, WeatherResponseCache).
+// When the location can't be resolved, the request goes on to the IP-based handler, which reports the error
+public class LocationRedirectFilter extends OncePerRequestFilter {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationRedirectFilter.class);
+	
+	private static final Pattern IP_BASED_PATH = Pattern.compile("^/v1/(realtime|hourly|daily|full)$");
+	
+	public enum Mode { REDIRECT, FORWARD }
+	
+	private GeolocationService geolocationService;
+	
+	private LocationCodeIndex locationCodeIndex;
+	
+	private Mode mode;
+
+	public LocationRedirectFilter(GeolocationService geolocationService, LocationCodeIndex locationCodeIndex, Mode mode) {
+		this.geolocationService = geolocationService;
+		this.locationCodeIndex = locationCodeIndex;
+		this.mode = mode;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+		// batch GETs (?codes=) name their locations
+		return !"GET".equals(request.getMethod()) || !IP_BASED_PATH.matcher(request.getServletPath()).matches()
+				|| request.getParameter("codes") != null;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		
+		String locationCode = resolveLocationCode(request);
+		
+		if (locationCode == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		String locationPath = request.getServletPath() + "/" + URLEncoder.encode(locationCode, StandardCharsets.UTF_8);
+		
+		if (mode == Mode.FORWARD) {
+			response.setHeader(HttpHeaders.CONTENT_LOCATION, request.getContextPath() + locationPath);
+			request.getRequestDispatcher(locationPath).forward(request, response);
+			return;
+		}
+		
+		// the target depends on the client's address, so only the client may keep the redirect
+		response.setStatus(HttpStatus.FOUND.value());
+		response.setHeader(HttpHeaders.LOCATION, request.getContextPath() + locationPath);
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+	}
+	
+	private String resolveLocationCode(HttpServletRequest request) {
+		try {
+			Location locationFromIP = geolocationService.getLocation(CommonUtility.getIPAddress(request));
+			
+			return locationCodeIndex.getCode(locationFromIP.getCountryCode(), locationFromIP.getCityName());
+			
+		} catch (GeolocationException ex) {
+			LOGGER.info("No location redirect: " + ex.getMessage());
+			return null;
+		}
+	}
+}
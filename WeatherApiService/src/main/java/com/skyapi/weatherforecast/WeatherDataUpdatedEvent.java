@@ -0,0 +1,20 @@
+package com.skyapi.weatherforecast;
+
+// published by the weather services after writing realtime, hourly or daily data of a location
+public class WeatherDataUpdatedEvent {
+	
+	private String locationCode;
+
+	public WeatherDataUpdatedEvent(String locationCode) {
+		this.locationCode = locationCode;
+	}
+
+	public String getLocationCode() {
+		return locationCode;
+	}
+
+	@Override
+	public String toString() {
+		return "WeatherDataUpdatedEvent [locationCode=" + locationCode + "]";
+	}
+}
@@ -0,0 +1,104 @@
+package com.skyapi.weatherforecast;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.hateoas.Link;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
+import com.skyapi.weatherforecast.full.FullWeatherApiController;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherApiController;
+import com.skyapi.weatherforecast.location.LocationApiController;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherApiController;
+
+// links between the location and weather resources. The paths are resolved once through methodOn(),
+// then expanded with the base URI of the response and the location code, which spares recording
+// an invocation on a proxy and building a URI for every single link
+public class WeatherLinks {
+	
+	private static final String CODE = "_LOCATION_CODE_";
+	
+	public static final LinkTemplate LOCATION;
+	public static final LinkTemplate REALTIME_BY_CODE;
+	public static final LinkTemplate HOURLY_BY_CODE;
+	public static final LinkTemplate DAILY_BY_CODE;
+	public static final LinkTemplate FULL_BY_CODE;
+	
+	public static final LinkTemplate REALTIME_BY_IP;
+	public static final LinkTemplate HOURLY_BY_IP;
+	public static final LinkTemplate DAILY_BY_IP;
+	public static final LinkTemplate FULL_BY_IP;
+	
+	static {
+		// resolved without a base URI, even when this class is first used while handling a request
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		RequestContextHolder.resetRequestAttributes();
+		
+		try {
+			LOCATION = template(methodOn(LocationApiController.class).getLocation(CODE));
+			REALTIME_BY_CODE = template(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(CODE, null));
+			HOURLY_BY_CODE = template(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(CODE, null));
+			DAILY_BY_CODE = template(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(CODE));
+			FULL_BY_CODE = template(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(CODE));
+			
+			REALTIME_BY_IP = template(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByIPAddress(null));
+			HOURLY_BY_IP = template(methodOn(HourlyWeatherApiController.class).listHourlyForecastByIPAddress(null));
+			DAILY_BY_IP = template(methodOn(DailyWeatherApiController.class).listDailyForecastByIPAddress(null));
+			FULL_BY_IP = template(methodOn(FullWeatherApiController.class).getFullWeatherByIPAddress(null));
+		} finally {
+			RequestContextHolder.setRequestAttributes(requestAttributes);
+		}
+	}
+	
+	// the same base URI as WebMvcLinkBuilder uses, to be looked up once per response
+	public static String getBaseUri() {
+		String baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+		
+		return baseUri.endsWith("/") ? baseUri.substring(0, baseUri.length() - 1) : baseUri;
+	}
+	
+	private static LinkTemplate template(Object invocation) {
+		String path = linkTo(invocation).toUri().toString();
+		int index = path.indexOf(CODE);
+		
+		if (index < 0) {
+			return new LinkTemplate(path, null);
+		}
+		
+		return new LinkTemplate(path.substring(0, index), path.substring(index + CODE.length()));
+	}
+	
+	// suffix is null for the paths without a location code
+	public record LinkTemplate(String prefix, String suffix) {
+		
+		public String expand(String baseUri, String locationCode) {
+			if (suffix == null) {
+				return baseUri + prefix;
+			}
+			
+			return baseUri + prefix + UriUtils.encodePathSegment(locationCode, StandardCharsets.UTF_8) + suffix;
+		}
+		
+		public Link withSelfRel(String baseUri, String locationCode) {
+			return Link.of(expand(baseUri, locationCode));
+		}
+		
+		public Link withRel(String baseUri, String locationCode, String relation) {
+			return Link.of(expand(baseUri, locationCode), relation);
+		}
+		
+		public Link withSelfRel(String baseUri) {
+			return withSelfRel(baseUri, null);
+		}
+		
+		public Link withRel(String baseUri, String relation) {
+			return withRel(baseUri, null, relation);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.skyapi.weatherforecast;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skyapi.weatherforecast.location.LocationChangedEvent;
+
+// serialized GET responses of the per-location weather endpoints, grouped by location code
+// so that a write evicts every endpoint and variant of that location at once.
+// The TTL only bounds how long a missed eviction can serve stale data
+@Component
+public class WeatherResponseCache {
+	
+	private Cache<String, Map<String, CachedResponse>> cache;
+	
+	// bumped on every eviction: a response computed while a write was committing is not stored
+	private Map<String, Long> generations = new ConcurrentHashMap<>();
+
+	public WeatherResponseCache(@Value("${weather.response-cache.max-locations:10000}") long maxLocations,
+			@Value("${weather.response-cache.ttl-minutes:10}") long ttlMinutes) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxLocations)
+				.expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+				.recordStats()
+				.build();
+	}
+	
+	public CachedResponse get(String locationCode, String variant) {
+		Map<String, CachedResponse> responses = cache.getIfPresent(key(locationCode));
+		
+		return responses != null ? responses.get(variant) : null;
+	}
+	
+	public long getGeneration(String locationCode) {
+		return generations.getOrDefault(key(locationCode), 0L);
+	}
+	
+	// the generation check and the write run under the lock of the entry, as evict() does,
+	// so an eviction can never fall between the two
+	public void put(String locationCode, String variant, long generation, CachedResponse response) {
+		cache.asMap().compute(key(locationCode), (key, responses) -> {
+			if (generation != generations.getOrDefault(key, 0L)) {
+				return responses;
+			}
+			
+			Map<String, CachedResponse> updatedResponses = responses != null ? responses : new ConcurrentHashMap<>();
+			updatedResponses.put(variant, response);
+			
+			return updatedResponses;
+		});
+	}
+	
+	public void evict(String locationCode) {
+		cache.asMap().compute(key(locationCode), (key, responses) -> {
+			generations.merge(key, 1L, Long::sum);
+			return null;
+		});
+	}
+	
+	public void clear() {
+		cache.asMap().keySet().forEach(this::evict);
+	}
+	
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onWeatherDataUpdated(WeatherDataUpdatedEvent event) {
+		evict(event.getLocationCode());
+	}
+	
+	// the location details are part of every weather response
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		evict(event.getCode());
+	}
+	
+	// MySQL compares codes with a case-insensitive collation, so /v1/realtime/nyc_usa is NYC_USA
+	private String key(String locationCode) {
+		return locationCode.toUpperCase(Locale.ROOT);
+	}
+	
+	// lastModified and expires are epoch millis, -1 if the response had no such header
+	public record CachedResponse(byte[] body, String contentType, String etag, long lastModified, long expires) {
+		
+		public boolean isExpired() {
+			return expires >= 0 && System.currentTimeMillis() >= expires;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.skyapi.weatherforecast;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.servlet.DispatcherType;
+
+// the filter is always registered: weather.response-cache.enabled only switches the caching off,
+// ETags and 304 answers stay
+@Configuration
+public class WeatherResponseCacheConfig {
+
+	@Bean
+	public FilterRegistrationBean<WeatherResponseCacheFilter> weatherResponseCacheFilter(WeatherResponseCache responseCache,
+			@Value("${weather.response-cache.enabled:true}") boolean cacheEnabled) {
+		FilterRegistrationBean<WeatherResponseCacheFilter> registration = 
+				new FilterRegistrationBean<>(new WeatherResponseCacheFilter(responseCache, cacheEnabled));
+		
+		registration.addUrlPatterns("/v1/realtime", "/v1/hourly", "/v1/daily", "/v1/full", 
+				"/v1/realtime/*", "/v1/hourly/*", "/v1/daily/*", "/v1/full/*");
+		
+		// forwards come from LocationRedirectFilter
+		registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.FORWARD);
+		
+		return registration;
+	}
+}
@@ -0,0 +1,159 @@
+package com.skyapi.weatherforecast;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.skyapi.weatherforecast.WeatherResponseCache.CachedResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// serves repeated GETs of /v1/{realtime|hourly|daily|full}/{code} from WeatherResponseCache,
+// skipping the database, the DTO mapping and Jackson.
+// Every weather GET gets a strong ETag (hash of the body) and If-None-Match is answered with 304;
+// for cached responses that happens before anything is rendered. With caching disabled every
+// request is rendered, but still validated
+public class WeatherResponseCacheFilter extends OncePerRequestFilter {
+	
+	private static final Pattern WEATHER_PATH = Pattern.compile("^/v1/(realtime|hourly|daily|full)(?:/([^/]+))?$");
+	
+	private static final String STREAM_PATH = "/v1/realtime/stream";
+	
+	private WeatherResponseCache responseCache;
+	
+	private boolean cacheEnabled;
+
+	public WeatherResponseCacheFilter(WeatherResponseCache responseCache, boolean cacheEnabled) {
+		this.responseCache = responseCache;
+		this.cacheEnabled = cacheEnabled;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+		String path = request.getServletPath();
+		
+		// the event stream must not be buffered
+		return !"GET".equals(request.getMethod()) || !WEATHER_PATH.matcher(path).matches() || STREAM_PATH.equals(path);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		
+		Matcher matcher = WEATHER_PATH.matcher(request.getServletPath());
+		matcher.matches();
+		
+		String locationCode = matcher.group(2);
+		
+		// by IP address: the location is only known after geolocation, so these are validated but not cached
+		if (locationCode == null || !cacheEnabled) {
+			ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+			
+			filterChain.doFilter(request, responseWrapper);
+			
+			if (responseWrapper.getStatus() == HttpStatus.OK.value()) {
+				CachedResponse rendered = toCachedResponse(responseWrapper);
+				
+				if (checkNotModified(request, responseWrapper, rendered)) {
+					return;
+				}
+			}
+			
+			responseWrapper.copyBodyToResponse();
+			return;
+		}
+		
+		String variant = getVariant(request, matcher.group(1));
+		
+		CachedResponse cached = responseCache.get(locationCode, variant);
+		
+		if (cached != null && !cached.isExpired()) {
+			response.setHeader("X-Cache", "HIT");
+			
+			// a 304 carries it too, so clients and CDNs keep the hourly forecast until its hour ends
+			if (cached.expires() >= 0) {
+				response.setDateHeader(HttpHeaders.EXPIRES, cached.expires());
+			}
+			
+			if (checkNotModified(request, response, cached)) {
+				return;
+			}
+			
+			response.setStatus(HttpStatus.OK.value());
+			response.setContentType(cached.contentType());
+			response.setContentLength(cached.body().length);
+			response.getOutputStream().write(cached.body());
+			return;
+		}
+		
+		long generation = responseCache.getGeneration(locationCode);
+		
+		ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+		responseWrapper.setHeader("X-Cache", "MISS");
+		
+		filterChain.doFilter(request, responseWrapper);
+		
+		if (responseWrapper.getStatus() == HttpStatus.OK.value()) {
+			CachedResponse rendered = toCachedResponse(responseWrapper);
+			
+			responseCache.put(locationCode, variant, generation, rendered);
+			
+			if (checkNotModified(request, responseWrapper, rendered)) {
+				return;
+			}
+		}
+		
+		responseWrapper.copyBodyToResponse();
+	}
+	
+	// sets ETag and Last-Modified, and the 304 status when the client's copy is current
+	private boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, CachedResponse rendered) {
+		return new ServletWebRequest(request, response).checkNotModified(rendered.etag(), rendered.lastModified());
+	}
+	
+	private CachedResponse toCachedResponse(ContentCachingResponseWrapper responseWrapper) {
+		byte[] body = responseWrapper.getContentAsByteArray();
+		String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+		
+		return new CachedResponse(body, responseWrapper.getContentType(), etag, 
+				parseDate(responseWrapper.getHeader(HttpHeaders.LAST_MODIFIED)), 
+				parseDate(responseWrapper.getHeader(HttpHeaders.EXPIRES)));
+	}
+	
+	private long parseDate(String value) {
+		if (value == null) {
+			return -1;
+		}
+		
+		try {
+			return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+		} catch (DateTimeParseException ex) {
+			return -1;
+		}
+	}
+	
+	// the hourly forecast depends on the client's current hour, if given. Without it the hour is
+	// the location's own, and the response expires when that hour ends
+	private String getVariant(HttpServletRequest request, String endpoint) {
+		String currentHour = request.getHeader("X-Current-Hour");
+		
+		if ("hourly".equals(endpoint) && currentHour != null) {
+			return endpoint + ":" + currentHour;
+		}
+		
+		return endpoint;
+	}
+}
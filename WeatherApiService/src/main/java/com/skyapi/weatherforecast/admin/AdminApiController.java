@@ -0,0 +1,93 @@
+package com.skyapi.weatherforecast.admin;
+
+import java.io.IOException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.location.LocationCache;
+
+@RestController
+@RequestMapping("/v1/admin")
+public class AdminApiController {
+	
+	private GeolocationService geolocationService;
+	
+	private LocationCache locationCache;
+
+	public AdminApiController(GeolocationService geolocationService, LocationCache locationCache) {
+		super();
+		this.geolocationService = geolocationService;
+		this.locationCache = locationCache;
+	}
+	
+	@GetMapping("/geolocation")
+	public ResponseEntity<?> getGeolocationDatabase() {
+		
+		return ResponseEntity.ok(geolocationDatabase2DTO());
+	}
+	
+	@PostMapping("/geolocation/reload")
+	public ResponseEntity<?> reloadGeolocationDatabase() throws IOException {
+		
+		geolocationService.reload();
+		
+		return ResponseEntity.ok(geolocationDatabase2DTO());
+	}
+	
+	@GetMapping("/geolocation/cache")
+	public ResponseEntity<?> getGeolocationCacheStats() {
+		
+		return ResponseEntity.ok(stats2DTO(geolocationService.getCacheStats(), geolocationService.getCacheSize()));
+	}
+	
+	@DeleteMapping("/geolocation/cache")
+	public ResponseEntity<?> clearGeolocationCache() {
+		
+		geolocationService.clearCache();
+		
+		return ResponseEntity.noContent().build();
+	}
+	
+	@GetMapping("/locations/cache")
+	public ResponseEntity<?> getLocationCacheStats() {
+		
+		return ResponseEntity.ok(stats2DTO(locationCache.getStats(), locationCache.getSize()));
+	}
+	
+	@DeleteMapping("/locations/cache")
+	public ResponseEntity<?> clearLocationCache() {
+		
+		locationCache.clear();
+		
+		return ResponseEntity.noContent().build();
+	}
+	
+	private GeolocationDatabaseDTO geolocationDatabase2DTO() {
+		GeolocationDatabaseDTO dto = new GeolocationDatabaseDTO();
+		
+		dto.setSource(geolocationService.getDatabaseSource());
+		dto.setVersion(geolocationService.getDatabaseVersion());
+		dto.setLoadedAt(geolocationService.getDatabaseLoadedAt());
+		
+		return dto;
+	}
+	
+	private CacheStatsDTO stats2DTO(CacheStats stats, long size) {
+		CacheStatsDTO dto = new CacheStatsDTO();
+		
+		dto.setSize(size);
+		dto.setHitCount(stats.hitCount());
+		dto.setMissCount(stats.missCount());
+		dto.setHitRate(stats.hitRate());
+		dto.setEvictionCount(stats.evictionCount());
+		
+		return dto;
+	}
+}
@@ -0,0 +1,42 @@
+package com.skyapi.weatherforecast.admin;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"source", "version", "loaded_at"})
+public class GeolocationDatabaseDTO {
+	
+	private String source;
+	
+	private String version;
+	
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+	private Date loadedAt;
+
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	public Date getLoadedAt() {
+		return loadedAt;
+	}
+
+	public void setLoadedAt(Date loadedAt) {
+		this.loadedAt = loadedAt;
+	}
+	
+}
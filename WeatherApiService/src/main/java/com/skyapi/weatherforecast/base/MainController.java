@@ -35,7 +35,7 @@ public class MainController {
 		entity.setRealtimeWeatherByIpUrl(realtimeWeatherByIpUrl);
 		
 		String realtimeWeatherByCodeUrl = linkTo(
-				methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(null)).toString();
+				methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(null, null)).toString();
 		entity.setRealtimeWeatherByCodeUrl(realtimeWeatherByCodeUrl);	
 		
 		String hourlyForecastByIpUrl = linkTo(
@@ -5,6 +5,7 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.hateoas.EntityModel;
@@ -15,16 +16,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.BatchWeatherDTO;
 import com.skyapi.weatherforecast.CommonUtility;
+import com.skyapi.weatherforecast.ForecastMergeResult;
+import com.skyapi.weatherforecast.ForecastMerger;
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherLinks;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.Location;
-import com.skyapi.weatherforecast.full.FullWeatherApiController;
-import com.skyapi.weatherforecast.hourly.HourlyWeatherApiController;
-import com.skyapi.weatherforecast.realtime.RealtimeWeatherApiController;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -74,6 +78,29 @@ public class DailyWeatherApiController {
 		return ResponseEntity.ok(addLinksByLocation(dto, locationCode));
 	}
 	
+	@GetMapping(params = "codes")
+	public ResponseEntity<?> listDailyForecastByLocationCodes(@RequestParam("codes") String codes) throws BadRequestException {
+		List<String> locationCodes = LocationCodeBatch.parse(codes);
+		
+		Map<String, List<DailyWeather>> forecastByCode = dailyWeatherService.getByLocationCodes(locationCodes);
+		
+		BatchWeatherDTO<EntityModel<DailyWeatherListDTO>> batchDTO = new BatchWeatherDTO<>();
+		
+		for (String locationCode : locationCodes) {
+			List<DailyWeather> dailyForecast = forecastByCode.get(locationCode);
+			
+			if (dailyForecast == null) {
+				batchDTO.addNotFound(locationCode);
+			} else {
+				batchDTO.addResult(locationCode, addLinksByLocation(listEntity2DTO(dailyForecast), locationCode));
+			}
+		}
+		
+		batchDTO.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCodes(codes)).withSelfRel());
+		
+		return ResponseEntity.ok(batchDTO);
+	}
+	
 	@PutMapping("/{locationCode}")
 	public ResponseEntity<?> updateDailyForecast(@PathVariable("locationCode") String code,
 			@RequestBody @Valid List<DailyWeatherDTO> listDTO) throws BadRequestException {
@@ -82,6 +109,12 @@ public class DailyWeatherApiController {
 			throw new BadRequestException("Daily forecast data cannot be empty");
 		}
 		
+		String duplicateDay = ForecastMerger.findDuplicateKey(listDTO, dto -> dto.getDayOfMonth() + "/" + dto.getMonth());
+		
+		if (duplicateDay != null) {
+			throw new BadRequestException("Daily forecast data contains day " + duplicateDay + " more than once");
+		}
+		
 		listDTO.forEach(System.out::println);
 		
 		List<DailyWeather> dailyWeather = listDTO2ListEntity(listDTO);
@@ -90,21 +123,25 @@ public class DailyWeatherApiController {
 		
 		dailyWeather.forEach(System.out::println);		
 		
-		List<DailyWeather> updatedForecast = dailyWeatherService.updateByLocationCode(code, dailyWeather);
+		ForecastMergeResult<DailyWeather> result = dailyWeatherService.updateByLocationCode(code, dailyWeather);
 		
-		DailyWeatherListDTO updatedDto = listEntity2DTO(updatedForecast);
+		DailyWeatherListDTO updatedDto = listEntity2DTO(result.getForecast());
 		
-		return ResponseEntity.ok(addLinksByLocation(updatedDto, code));
+		return ResponseEntity.ok()
+				.headers(CommonUtility.getMergeCountHeaders(result))
+				.body(addLinksByLocation(updatedDto, code));
 	}	
 	
 	private DailyWeatherListDTO listEntity2DTO(List<DailyWeather> dailyForecast) {
-		Location location = dailyForecast.get(0).getId().getLocation();
-		
 		DailyWeatherListDTO listDTO = new DailyWeatherListDTO();
-		listDTO.setLocation(location.toString());
+		
+		// an empty forecast only occurs in batch responses
+		if (!dailyForecast.isEmpty()) {
+			listDTO.setLocation(dailyForecast.get(0).getId().getLocation().toString());
+		}
 		
 		dailyForecast.forEach(dailyWeather -> {
-			listDTO.addDailyWeatherDTO(modelMapper.map(dailyWeather, DailyWeatherDTO.class));
+			listDTO.addDailyWeatherDTO(DailyWeatherMapper.toDTO(dailyWeather));
 		});
 		
 		return listDTO;
@@ -123,27 +160,31 @@ public class DailyWeatherApiController {
 	private EntityModel<DailyWeatherListDTO> addLinksByIP(DailyWeatherListDTO dto) {
 		EntityModel<DailyWeatherListDTO> entityModel = EntityModel.of(dto);
 		
-		entityModel.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByIPAddress(null)).withSelfRel());
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		entityModel.add(WeatherLinks.DAILY_BY_IP.withSelfRel(baseUri));
 
-		entityModel.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByIPAddress(null)).withRel("realtime_weather"));
+		entityModel.add(WeatherLinks.REALTIME_BY_IP.withRel(baseUri, "realtime_weather"));
 
-		entityModel.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByIPAddress(null)).withRel("hourly_forecast"));	
+		entityModel.add(WeatherLinks.HOURLY_BY_IP.withRel(baseUri, "hourly_forecast"));	
 
-		entityModel.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByIPAddress(null)).withRel("full_forecast"));			
+		entityModel.add(WeatherLinks.FULL_BY_IP.withRel(baseUri, "full_forecast"));			
 		
 		return entityModel;
 	}
 	
 	private EntityModel<DailyWeatherListDTO> addLinksByLocation(DailyWeatherListDTO dto, String locationCode) {
 		
+		String baseUri = WeatherLinks.getBaseUri();
+		
 		return EntityModel.of(dto)
 				
-				.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(locationCode)).withSelfRel())
+				.add(WeatherLinks.DAILY_BY_CODE.withSelfRel(baseUri, locationCode))
 		
-				.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(locationCode)).withRel("realtime_weather"))
+				.add(WeatherLinks.REALTIME_BY_CODE.withRel(baseUri, locationCode, "realtime_weather"))
 		
-				.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(locationCode, null)).withRel("hourly_forecast"))
+				.add(WeatherLinks.HOURLY_BY_CODE.withRel(baseUri, locationCode, "hourly_forecast"))
 		
-				.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(locationCode)).withRel("full_forecast"));		
+				.add(WeatherLinks.FULL_BY_CODE.withRel(baseUri, locationCode, "full_forecast"));		
 	}		
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.skyapi.weatherforecast.daily;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+
+public class DailyWeatherMapper {
+	
+	public static DailyWeatherDTO toDTO(DailyWeather entity) {
+		DailyWeatherDTO dto = new DailyWeatherDTO();
+		
+		dto.setDayOfMonth(entity.getId().getDayOfMonth());
+		dto.setMonth(entity.getId().getMonth());
+		dto.setMinTemp(entity.getMinTemp());
+		dto.setMaxTemp(entity.getMaxTemp());
+		dto.setPrecipitation(entity.getPrecipitation());
+		dto.setStatus(entity.getStatus());
+		
+		return dto;
+	}
+}
@@ -1,5 +1,6 @@
 package com.skyapi.weatherforecast.daily;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
@@ -15,4 +16,10 @@ public interface DailyWeatherRepository extends CrudRepository<DailyWeather, Dai
 			AND d.id.location.trashed = false
 			""")
 	public List<DailyWeather> findByLocationCode(String locationCode);
+	
+	@Query("""
+			SELECT d FROM DailyWeather d JOIN FETCH d.id.location l WHERE l.code IN ?1
+			AND l.trashed = false
+			""")
+	public List<DailyWeather> findByLocationCodes(Collection<String> locationCodes);
 }
\ No newline at end of file
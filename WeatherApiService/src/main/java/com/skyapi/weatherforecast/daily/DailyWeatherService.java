@@ -1,15 +1,29 @@
 package com.skyapi.weatherforecast.daily;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.skyapi.weatherforecast.ForecastMergeResult;
+import com.skyapi.weatherforecast.ForecastFingerprints;
+import com.skyapi.weatherforecast.ForecastFingerprints.Kind;
+import com.skyapi.weatherforecast.ForecastMerger;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class DailyWeatherService {
 
@@ -17,10 +31,24 @@ public class DailyWeatherService {
 	
 	private LocationRepository locationRepo;
 	
-	public DailyWeatherService(DailyWeatherRepository dailyWeatherRepo, LocationRepository locationRepo) {
+	private LocationCodeIndex locationCodeIndex;
+	
+	private LocationCache locationCache;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private ForecastFingerprints forecastFingerprints;
+	
+	public DailyWeatherService(DailyWeatherRepository dailyWeatherRepo, LocationRepository locationRepo, 
+			LocationCodeIndex locationCodeIndex, LocationCache locationCache, 
+			ApplicationEventPublisher eventPublisher, ForecastFingerprints forecastFingerprints) {
 		super();
 		this.dailyWeatherRepo = dailyWeatherRepo;
 		this.locationRepo = locationRepo;
+		this.locationCodeIndex = locationCodeIndex;
+		this.locationCache = locationCache;
+		this.eventPublisher = eventPublisher;
+		this.forecastFingerprints = forecastFingerprints;
 	}
 	
 	public List<DailyWeather> getByLocation(Location location) {
@@ -28,27 +56,66 @@ public class DailyWeatherService {
 		String countryCode = location.getCountryCode();
 		String cityName = location.getCityName();
 		
-		Location locationInDB = locationRepo.findByCountryCodeAndCityName(countryCode, cityName);
+		String locationCode = locationCodeIndex.getCode(countryCode, cityName);
 		
-		if (locationInDB == null) {
+		if (locationCode == null) {
 			throw new LocationNotFoundException(countryCode, cityName);
 		}
 		
-		return dailyWeatherRepo.findByLocationCode(locationInDB.getCode());
+		return dailyWeatherRepo.findByLocationCode(locationCode);
 	}		
 	
 	public List<DailyWeather> getByLocationCode(String locationCode) {
-		Location location = locationRepo.findByCode(locationCode);
-		
-		if (location == null) {
+		if (locationCache.get(locationCode).isEmpty()) {
 			throw new LocationNotFoundException(locationCode);
 		}
 		
 		return dailyWeatherRepo.findByLocationCode(locationCode);
 	}
 	
-	public List<DailyWeather> updateByLocationCode(String code, List<DailyWeather> dailyWeatherInRequest) 
+	// unknown locations are left out. Rows carry the stored code, which a requested code may differ
+	// from in case only: they are grouped by that canonical code, and returned under the requested one
+	public Map<String, List<DailyWeather>> getByLocationCodes(List<String> locationCodes) {
+		Map<String, String> canonicalCodeByCode = new HashMap<>();
+		
+		for (String code : locationCodes) {
+			locationCache.get(code).ifPresent(location -> canonicalCodeByCode.put(code, location.getCode()));
+		}
+		
+		Map<String, List<DailyWeather>> forecastByCanonicalCode = new HashMap<>();
+		
+		canonicalCodeByCode.values().forEach(code -> forecastByCanonicalCode.putIfAbsent(code, new ArrayList<>()));
+		
+		for (List<String> chunk : LocationCodeBatch.chunks(new ArrayList<>(forecastByCanonicalCode.keySet()))) {
+			dailyWeatherRepo.findByLocationCodes(chunk)
+				.forEach(dailyWeather -> forecastByCanonicalCode.get(dailyWeather.getId().getLocation().getCode()).add(dailyWeather));
+		}
+		
+		Map<String, List<DailyWeather>> forecastByCode = new HashMap<>();
+		
+		canonicalCodeByCode.forEach((code, canonicalCode) -> forecastByCode.put(code, forecastByCanonicalCode.get(canonicalCode)));
+		
+		return forecastByCode;
+	}
+	
+	@Transactional
+	public ForecastMergeResult<DailyWeather> updateByLocationCode(String code, List<DailyWeather> dailyWeatherInRequest) 
 			throws LocationNotFoundException {
+		String fingerprint = fingerprint(dailyWeatherInRequest);
+		
+		// with the memo enabled, a resent forecast is answered from the location cache without any statement;
+		// otherwise the merge below finds every stored row unchanged and writes nothing
+		if (forecastFingerprints.matches(Kind.DAILY, code, fingerprint)) {
+			Location location = locationCache.get(code)
+					.orElseThrow(() -> new LocationNotFoundException(code));
+			
+			dailyWeatherInRequest.forEach(data -> data.getId().setLocation(location));
+			
+			return ForecastMergeResult.allUnchanged(dailyWeatherInRequest);
+		}
+		
+		long generation = forecastFingerprints.beginUpdate(Kind.DAILY, code);
+		
 		Location location = locationRepo.findByCode(code);
 		
 		if (location == null) {
@@ -60,18 +127,26 @@ public class DailyWeatherService {
 		}
 		
 		List<DailyWeather> dailyWeatherInDB = location.getListDailyWeather();
-		List<DailyWeather> dailyWeatherToBeRemoved = new ArrayList<>();
 		
-		for (DailyWeather forecast : dailyWeatherInDB) {
-			if (!dailyWeatherInRequest.contains(forecast)) {
-				dailyWeatherToBeRemoved.add(forecast.getShallowCopy());
-			}
-		}
+		ForecastMergeResult<DailyWeather> result = ForecastMerger.merge(dailyWeatherInDB, dailyWeatherInRequest, 
+				DailyWeather::getId, DailyWeather::hasSameDataAs, DailyWeather::copyDataFrom);
+		
+		// orphan removal deletes, cascade inserts, and dirty checking flushes only the updated rows
+		dailyWeatherInDB.removeAll(new HashSet<>(result.getDeleted()));
+		dailyWeatherInDB.addAll(result.getInserted());
+		
+		forecastFingerprints.put(Kind.DAILY, code, generation, fingerprint);
 		
-		for (DailyWeather forecastToBeRemoved : dailyWeatherToBeRemoved) {
-			dailyWeatherInDB.remove(forecastToBeRemoved);
+		if (result.hasChanges()) {
+			eventPublisher.publishEvent(new WeatherDataUpdatedEvent(code));
 		}
 		
-		return (List<DailyWeather>) dailyWeatherRepo.saveAll(dailyWeatherInRequest);
-	}	
+		return result;
+	}
+	
+	public static String fingerprint(List<DailyWeather> dailyForecast) {
+		return ForecastFingerprints.of(dailyForecast, dailyWeather -> dailyWeather.getId().getMonth() + "|" 
+				+ dailyWeather.getId().getDayOfMonth() + "|" + dailyWeather.getMinTemp() + "|" + dailyWeather.getMaxTemp() + "|" 
+				+ dailyWeather.getPrecipitation() + "|" + dailyWeather.getStatus());
+	}
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.skyapi.weatherforecast.full;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
+import java.util.List;
+import java.util.Map;
+
 import org.modelmapper.ModelMapper;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.ResponseEntity;
@@ -11,12 +14,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.BatchWeatherDTO;
 import com.skyapi.weatherforecast.CommonUtility;
+import com.skyapi.weatherforecast.ForecastMerger;
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherLinks;
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -61,6 +70,29 @@ public class FullWeatherApiController {
 		return ResponseEntity.ok(addLinksByLocation(dto, locationCode));
 	}	
 	
+	@GetMapping(params = "codes")
+	public ResponseEntity<?> getFullWeatherByLocationCodes(@RequestParam("codes") String codes) throws BadRequestException {
+		List<String> locationCodes = LocationCodeBatch.parse(codes);
+		
+		Map<String, Location> locationsByCode = weatherService.getByCodes(locationCodes);
+		
+		BatchWeatherDTO<EntityModel<FullWeatherDTO>> batchDTO = new BatchWeatherDTO<>();
+		
+		for (String locationCode : locationCodes) {
+			Location locationInDB = locationsByCode.get(locationCode);
+			
+			if (locationInDB == null) {
+				batchDTO.addNotFound(locationCode);
+			} else {
+				batchDTO.addResult(locationCode, addLinksByLocation(entity2DTO(locationInDB), locationCode));
+			}
+		}
+		
+		batchDTO.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCodes(codes)).withSelfRel());
+		
+		return ResponseEntity.ok(batchDTO);
+	}
+	
 	@PutMapping("/{locationCode}")
 	public ResponseEntity<?> updateFullWeather(@PathVariable String locationCode, 
 			@RequestBody @Valid FullWeatherDTO dto) throws BadRequestException {
@@ -73,17 +105,32 @@ public class FullWeatherApiController {
 			throw new BadRequestException("Daily weather data cannot be empty");
 		}
 		
+		Integer duplicateHour = ForecastMerger.findDuplicateKey(dto.getListHourlyWeather(), HourlyWeatherDTO::getHourOfDay);
+		
+		if (duplicateHour != null) {
+			throw new BadRequestException("Hourly weather data contains hour " + duplicateHour + " more than once");
+		}
+		
+		String duplicateDay = ForecastMerger.findDuplicateKey(dto.getListDailyWeather(), 
+				daily -> daily.getDayOfMonth() + "/" + daily.getMonth());
+		
+		if (duplicateDay != null) {
+			throw new BadRequestException("Daily weather data contains day " + duplicateDay + " more than once");
+		}
+		
 		Location locationInRequest = dto2Entity(dto);
 		
-		Location updatedLocation = weatherService.update(locationCode, locationInRequest);
+		FullWeatherUpdateResult result = weatherService.update(locationCode, locationInRequest);
 		
-		FullWeatherDTO updatedDto = entity2DTO(updatedLocation);
+		FullWeatherDTO updatedDto = entity2DTO(result.location());
 		
-		return ResponseEntity.ok(addLinksByLocation(updatedDto, locationCode));
+		return ResponseEntity.ok()
+				.header("X-Data-Unchanged", String.valueOf(!result.changed()))
+				.body(addLinksByLocation(updatedDto, locationCode));
 	}
 	
 	private FullWeatherDTO entity2DTO(Location entity) {
-		FullWeatherDTO dto = modelMapper.map(entity, FullWeatherDTO.class);
+		FullWeatherDTO dto = FullWeatherMapper.toDTO(entity);
 		
 		// do not show the field location in realtime_weather object
 		dto.getRealtimeWeather().setLocation(null);
@@ -96,6 +143,6 @@ public class FullWeatherApiController {
 	
 	private EntityModel<FullWeatherDTO> addLinksByLocation(FullWeatherDTO dto, String locationCode) {
 		return EntityModel.of(dto)
-				.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(locationCode)).withSelfRel());		
+				.add(WeatherLinks.FULL_BY_CODE.withSelfRel(WeatherLinks.getBaseUri(), locationCode));		
 	}
 }
\ No newline at end of file
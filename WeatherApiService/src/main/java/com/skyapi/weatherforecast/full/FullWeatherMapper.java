@@ -0,0 +1,45 @@
+package com.skyapi.weatherforecast.full;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+// the read paths map entities with these mappers instead of ModelMapper. DTOMapperTests keeps the output identical
+public class FullWeatherMapper {
+	
+	public static FullWeatherDTO toDTO(Location entity) {
+		FullWeatherDTO dto = new FullWeatherDTO();
+		
+		dto.setLocation(entity.toString());
+		
+		// without realtime weather the DTO keeps its empty default, filtered out on serialization
+		if (entity.getRealtimeWeather() != null) {
+			dto.setRealtimeWeather(RealtimeWeatherMapper.toDTO(entity.getRealtimeWeather()));
+		}
+		
+		List<HourlyWeatherDTO> listHourlyWeather = new ArrayList<>(entity.getListHourlyWeather().size());
+		
+		for (HourlyWeather hourlyWeather : entity.getListHourlyWeather()) {
+			listHourlyWeather.add(HourlyWeatherMapper.toDTO(hourlyWeather));
+		}
+		
+		List<DailyWeatherDTO> listDailyWeather = new ArrayList<>(entity.getListDailyWeather().size());
+		
+		for (DailyWeather dailyWeather : entity.getListDailyWeather()) {
+			listDailyWeather.add(DailyWeatherMapper.toDTO(dailyWeather));
+		}
+		
+		dto.setListHourlyWeather(listHourlyWeather);
+		dto.setListDailyWeather(listDailyWeather);
+		
+		return dto;
+	}
+}
@@ -1,12 +1,11 @@
 package com.skyapi.weatherforecast.full;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import com.skyapi.weatherforecast.WeatherLinks;
+
 @Component
 public class FullWeatherModelAssembler 
 	implements RepresentationModelAssembler<FullWeatherDTO, EntityModel<FullWeatherDTO>> {
@@ -16,7 +15,7 @@ public class FullWeatherModelAssembler
 		
 		EntityModel<FullWeatherDTO> entityModel = EntityModel.of(dto);
 		
-		entityModel.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByIPAddress(null)).withSelfRel());
+		entityModel.add(WeatherLinks.FULL_BY_IP.withSelfRel(WeatherLinks.getBaseUri()));
 		
 		return entityModel;
 	}
@@ -1,31 +1,89 @@
 package com.skyapi.weatherforecast.full;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.skyapi.weatherforecast.AbstractLocationService;
+import com.skyapi.weatherforecast.ForecastFingerprints;
+import com.skyapi.weatherforecast.ForecastFingerprints.Kind;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.daily.DailyWeatherService;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherService;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherChangedEvent;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherWriteBuffer;
+
+import jakarta.transaction.Transactional;
 
 @Service
 public class FullWeatherService extends AbstractLocationService {
 
-	public FullWeatherService(LocationRepository repo) {
+	private LocationCodeIndex locationCodeIndex;
+	
+	private LocationCache locationCache;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private ForecastFingerprints forecastFingerprints;
+	
+	private RealtimeWeatherWriteBuffer writeBuffer;
+
+	public FullWeatherService(LocationRepository repo, LocationCodeIndex locationCodeIndex, LocationCache locationCache, 
+			ApplicationEventPublisher eventPublisher, ForecastFingerprints forecastFingerprints, 
+			RealtimeWeatherWriteBuffer writeBuffer) {
 		super();
 		this.locationRepo = repo;
+		this.locationCodeIndex = locationCodeIndex;
+		this.locationCache = locationCache;
+		this.eventPublisher = eventPublisher;
+		this.forecastFingerprints = forecastFingerprints;
+		this.writeBuffer = writeBuffer;
 	}
 	
+	@Override
+	@Transactional
+	public Location get(String code) {
+		// the full weather needs the managed entity, so the cache only short-circuits unknown codes
+		if (locationCache.get(code).isEmpty()) {
+			throw new LocationNotFoundException(code);
+		}
+		
+		Location locationInDB = fetchFullWeather(code);
+		
+		if (locationInDB == null) {
+			throw new LocationNotFoundException(code);
+		}
+		
+		return locationInDB;
+	}
+	
+	@Transactional
 	public Location getByLocation(Location locationFromIP) {
 		String cityName = locationFromIP.getCityName();
 		String countryCode = locationFromIP.getCountryCode();
 		
-		Location locationInDB = locationRepo.findByCountryCodeAndCityName(countryCode, cityName);
+		String locationCode = locationCodeIndex.getCode(countryCode, cityName);
+		
+		if (locationCode == null) {
+			throw new LocationNotFoundException(countryCode, cityName);
+		}
+		
+		Location locationInDB = fetchFullWeather(locationCode);
 		
 		if (locationInDB == null) {
 			throw new LocationNotFoundException(countryCode, cityName);
@@ -34,20 +92,109 @@ public class FullWeatherService extends AbstractLocationService {
 		return locationInDB;
 	}
 	
-	public Location update(String locationCode, Location locationInRequest) {
+	// two statements per chunk, as for a single location. Unknown locations are left out.
+	// Locations carry the stored code, which a requested code may differ from in case only:
+	// they are fetched by that canonical code, and returned under the requested one
+	@Transactional
+	public Map<String, Location> getByCodes(List<String> codes) {
+		Map<String, String> canonicalCodeByCode = new HashMap<>();
+		
+		for (String code : codes) {
+			locationCache.get(code).ifPresent(location -> canonicalCodeByCode.put(code, location.getCode()));
+		}
+		
+		List<String> canonicalCodes = new ArrayList<>(new LinkedHashSet<>(canonicalCodeByCode.values()));
+		
+		Map<String, Location> locationsByCanonicalCode = new HashMap<>();
+		
+		for (List<String> chunk : LocationCodeBatch.chunks(canonicalCodes)) {
+			List<Location> locations = locationRepo.findByCodesWithRealtimeAndHourlyWeather(chunk);
+			
+			if (!locations.isEmpty()) {
+				locationRepo.findByCodesWithDailyWeather(chunk);
+			}
+			
+			locations.forEach(location -> locationsByCanonicalCode.put(location.getCode(), location));
+		}
+		
+		Map<String, Location> locationsByCode = new HashMap<>();
+		
+		canonicalCodeByCode.forEach((code, canonicalCode) -> {
+			Location location = locationsByCanonicalCode.get(canonicalCode);
+			
+			if (location != null) {
+				locationsByCode.put(code, location);
+			}
+		});
+		
+		return locationsByCode;
+	}
+	
+	// two statements in total: location + realtime + hourly, then daily into the same instance
+	private Location fetchFullWeather(String code) {
+		Location locationInDB = locationRepo.findByCodeWithRealtimeAndHourlyWeather(code);
+		
+		if (locationInDB != null) {
+			locationRepo.findByCodeWithDailyWeather(code);
+		}
+		
+		return locationInDB;
+	}
+	
+	@Transactional
+	public FullWeatherUpdateResult update(String locationCode, Location locationInRequest) {
 		Location locationInDB = locationRepo.findByCode(locationCode);
 		
 		if (locationInDB == null) {
 			throw new LocationNotFoundException(locationCode);
 		}
 		
+		String hourlyFingerprint = HourlyWeatherService.fingerprint(locationInRequest.getListHourlyWeather());
+		String dailyFingerprint = DailyWeatherService.fingerprint(locationInRequest.getListDailyWeather());
+		
+		// a resent payload writes nothing and keeps the cached responses
+		if (hasSameWeatherData(locationInDB, locationInRequest, hourlyFingerprint, dailyFingerprint)) {
+			return new FullWeatherUpdateResult(locationInDB, false);
+		}
+		
+		RealtimeWeather realtimeWeatherInDB = locationInDB.getRealtimeWeather();
+		boolean realtimeWeatherChanged = realtimeWeatherInDB == null 
+				|| !realtimeWeatherInDB.hasSameDataAs(locationInRequest.getRealtimeWeather());
+		
+		long hourlyGeneration = forecastFingerprints.beginUpdate(Kind.HOURLY, locationCode);
+		long dailyGeneration = forecastFingerprints.beginUpdate(Kind.DAILY, locationCode);
+		
 		setLocationForWeatherData(locationInRequest, locationInDB);
 		
 		saveRealtimeWeatherIfNotExistBefore(locationInRequest, locationInDB);
 		
 		locationInRequest.copyAllFieldsFrom(locationInDB);
 		
-		return locationRepo.save(locationInRequest);
+		Location updatedLocation = locationRepo.save(locationInRequest);
+		
+		// an older buffered realtime update must not overwrite this one on the next flush
+		writeBuffer.discardOlderThan(updatedLocation.getCode(), locationInRequest.getRealtimeWeather().getLastUpdated());
+		
+		forecastFingerprints.put(Kind.HOURLY, locationCode, hourlyGeneration, hourlyFingerprint);
+		forecastFingerprints.put(Kind.DAILY, locationCode, dailyGeneration, dailyFingerprint);
+		
+		eventPublisher.publishEvent(new WeatherDataUpdatedEvent(locationCode));
+		
+		if (realtimeWeatherChanged) {
+			eventPublisher.publishEvent(new RealtimeWeatherChangedEvent(updatedLocation.getRealtimeWeather()));
+		}
+		
+		return new FullWeatherUpdateResult(updatedLocation, true);
+	}
+	
+	private boolean hasSameWeatherData(Location locationInDB, Location locationInRequest, 
+			String hourlyFingerprint, String dailyFingerprint) {
+		RealtimeWeather realtimeWeatherInDB = locationInDB.getRealtimeWeather();
+		
+		return realtimeWeatherInDB != null 
+				&& realtimeWeatherInDB.hasSameDataAs(locationInRequest.getRealtimeWeather())
+				&& HourlyWeatherService.fingerprint(locationInDB.getListHourlyWeather()).equals(hourlyFingerprint)
+				&& DailyWeatherService.fingerprint(locationInDB.getListDailyWeather()).equals(dailyFingerprint);
 	}
 
 	private void saveRealtimeWeatherIfNotExistBefore(Location locationInRequest, Location locationInDB) {
@@ -0,0 +1,8 @@
+package com.skyapi.weatherforecast.full;
+
+import com.skyapi.weatherforecast.common.Location;
+
+// changed is false when the request resent the stored data, which was then left untouched
+public record FullWeatherUpdateResult(Location location, boolean changed) {
+
+}
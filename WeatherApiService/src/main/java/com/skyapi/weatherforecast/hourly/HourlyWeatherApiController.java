@@ -4,7 +4,10 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.http.ResponseEntity;
@@ -14,16 +17,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.BatchWeatherDTO;
 import com.skyapi.weatherforecast.CommonUtility;
+import com.skyapi.weatherforecast.ForecastMergeResult;
+import com.skyapi.weatherforecast.ForecastMerger;
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherLinks;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.Location;
-import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
-import com.skyapi.weatherforecast.full.FullWeatherApiController;
-import com.skyapi.weatherforecast.realtime.RealtimeWeatherApiController;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -50,11 +57,17 @@ public class HourlyWeatherApiController {
 		String ipAddress = CommonUtility.getIPAddress(request);
 		
 		try {
-			int currentHour = Integer.parseInt(request.getHeader("X-Current-Hour"));
+			Integer currentHourInHeader = getCurrentHourInHeader(request);
 			
 			Location locationFromIP = locationService.getLocation(ipAddress);
+			
+			LocalHour localHour = getLocalHour(currentHourInHeader, () -> hourlyWeatherService.getLocalHour(locationFromIP));
+			
+			if (localHour == null) {
+				return ResponseEntity.badRequest().build();
+			}
 		
-			List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocation(locationFromIP, currentHour);
+			List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocation(locationFromIP, localHour.hour());
 			
 			if (hourlyForecast.isEmpty()) {
 				return ResponseEntity.noContent().build();
@@ -62,7 +75,7 @@ public class HourlyWeatherApiController {
 			
 			HourlyWeatherListDTO dto = listEntity2DTO(hourlyForecast);
 			
-			return ResponseEntity.ok(addLinksByIP(dto));
+			return ok(localHour, addLinksByIP(dto));
 			
 		} catch (NumberFormatException ex) {
 			
@@ -76,9 +89,14 @@ public class HourlyWeatherApiController {
 			@PathVariable("locationCode") String locationCode, HttpServletRequest request) {
 		
 		try {
-			int currentHour = Integer.parseInt(request.getHeader("X-Current-Hour"));
+			LocalHour localHour = getLocalHour(getCurrentHourInHeader(request), 
+					() -> hourlyWeatherService.getLocalHour(locationCode));
 			
-			List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocationCode(locationCode, currentHour);
+			if (localHour == null) {
+				return ResponseEntity.badRequest().build();
+			}
+			
+			List<HourlyWeather> hourlyForecast = hourlyWeatherService.getByLocationCode(locationCode, localHour.hour());
 			
 			if (hourlyForecast.isEmpty()) {
 				return ResponseEntity.noContent().build();
@@ -86,7 +104,7 @@ public class HourlyWeatherApiController {
 			
 			HourlyWeatherListDTO dto = listEntity2DTO(hourlyForecast);
 			
-			return ResponseEntity.ok(addLinksByLocation(dto, locationCode));
+			return ok(localHour, addLinksByLocation(dto, locationCode));
 			
 		} catch (NumberFormatException ex) {
 			
@@ -96,6 +114,56 @@ public class HourlyWeatherApiController {
 	}	
 	
 	
+	@GetMapping(params = "codes")
+	public ResponseEntity<?> listHourlyForecastByLocationCodes(@RequestParam("codes") String codes, 
+			HttpServletRequest request) throws BadRequestException {
+		
+		List<String> locationCodes = LocationCodeBatch.parse(codes);
+		
+		Integer currentHourInHeader;
+		
+		try {
+			currentHourInHeader = getCurrentHourInHeader(request);
+		} catch (NumberFormatException ex) {
+			return ResponseEntity.badRequest().build();
+		}
+		
+		BatchWeatherDTO<HourlyWeatherListDTO> batchDTO = new BatchWeatherDTO<>();
+		
+		Map<String, Integer> currentHourByCode = new LinkedHashMap<>();
+		
+		for (String locationCode : locationCodes) {
+			try {
+				LocalHour localHour = getLocalHour(currentHourInHeader, () -> hourlyWeatherService.getLocalHour(locationCode));
+				
+				if (localHour == null) {
+					batchDTO.addError(locationCode, "X-Current-Hour header is required for a location without time zone");
+				} else {
+					currentHourByCode.put(locationCode, localHour.hour());
+				}
+				
+			} catch (LocationNotFoundException ex) {
+				batchDTO.addNotFound(locationCode);
+			}
+		}
+		
+		Map<String, List<HourlyWeather>> forecastByCode = hourlyWeatherService.getByLocationCodes(currentHourByCode);
+		
+		for (String locationCode : currentHourByCode.keySet()) {
+			List<HourlyWeather> hourlyForecast = forecastByCode.get(locationCode);
+			
+			if (hourlyForecast == null) {
+				batchDTO.addNotFound(locationCode);
+			} else {
+				batchDTO.addResult(locationCode, addLinksByLocation(listEntity2DTO(hourlyForecast), locationCode));
+			}
+		}
+		
+		batchDTO.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCodes(codes, null)).withSelfRel());
+		
+		return ResponseEntity.ok(batchDTO);
+	}
+	
 	@PutMapping("/{locationCode}")
 	public ResponseEntity<?> updateHourlyForecast(@PathVariable("locationCode") String locationCode, 
 			@RequestBody @Valid List<HourlyWeatherDTO> listDTO) throws BadRequestException {
@@ -104,6 +172,12 @@ public class HourlyWeatherApiController {
 			throw new BadRequestException("Hourly forecast data cannot be empty");
 		}
 		
+		Integer duplicateHour = ForecastMerger.findDuplicateKey(listDTO, HourlyWeatherDTO::getHourOfDay);
+		
+		if (duplicateHour != null) {
+			throw new BadRequestException("Hourly forecast data contains hour " + duplicateHour + " more than once");
+		}
+		
 		listDTO.forEach(System.out::println);
 		
 		List<HourlyWeather> listHourlyWeather = listDTO2ListEntity(listDTO);
@@ -112,12 +186,40 @@ public class HourlyWeatherApiController {
 		
 		listHourlyWeather.forEach(System.out::println);
 		
-		List<HourlyWeather> updateHourlyWeather = hourlyWeatherService.updateByLocationCode(locationCode, listHourlyWeather);
+		ForecastMergeResult<HourlyWeather> result = hourlyWeatherService.updateByLocationCode(locationCode, listHourlyWeather);
+		
+		HourlyWeatherListDTO updatedDto = listEntity2DTO(result.getForecast());
+		
+		return ResponseEntity.ok()
+				.headers(CommonUtility.getMergeCountHeaders(result))
+				.body(addLinksByLocation(updatedDto, locationCode));
+		
+	}
+	
+	// X-Current-Hour overrides the hour computed from the location's time zone
+	private Integer getCurrentHourInHeader(HttpServletRequest request) {
+		String currentHour = request.getHeader("X-Current-Hour");
 		
-		HourlyWeatherListDTO updatedDto = listEntity2DTO(updateHourlyWeather);
+		return currentHour != null ? Integer.parseInt(currentHour) : null;
+	}
+	
+	private LocalHour getLocalHour(Integer currentHourInHeader, Supplier<LocalHour> localHourOfLocation) {
+		if (currentHourInHeader != null) {
+			return new LocalHour(currentHourInHeader, null);
+		}
 		
-		return ResponseEntity.ok(addLinksByLocation(updatedDto, locationCode));
+		return localHourOfLocation.get();
+	}
+	
+	// a forecast for the location's own hour is valid until the next local hour starts
+	private ResponseEntity<?> ok(LocalHour localHour, HourlyWeatherListDTO dto) {
+		if (localHour.validUntil() == null) {
+			return ResponseEntity.ok(dto);
+		}
 		
+		return ResponseEntity.ok()
+				.headers(headers -> headers.setExpires(localHour.validUntil().toEpochMilli()))
+				.body(dto);
 	}
 	
 	private List<HourlyWeather> listDTO2ListEntity(List<HourlyWeatherDTO> listDTO) {
@@ -131,13 +233,15 @@ public class HourlyWeatherApiController {
 	}
 	
 	private HourlyWeatherListDTO listEntity2DTO(List<HourlyWeather> hourlyForecast) {
-		Location location = hourlyForecast.get(0).getId().getLocation();
-		
 		HourlyWeatherListDTO listDTO = new HourlyWeatherListDTO();
-		listDTO.setLocation(location.toString());
+		
+		// an empty forecast only occurs in batch responses
+		if (!hourlyForecast.isEmpty()) {
+			listDTO.setLocation(hourlyForecast.get(0).getId().getLocation().toString());
+		}
 		
 		hourlyForecast.forEach(hourlyWeather -> {
-			HourlyWeatherDTO dto = modelMapper.map(hourlyWeather, HourlyWeatherDTO.class);
+			HourlyWeatherDTO dto = HourlyWeatherMapper.toDTO(hourlyWeather);
 			listDTO.addWeatherHourlyDTO(dto);
 		});
 		
@@ -148,26 +252,30 @@ public class HourlyWeatherApiController {
 	
 	private HourlyWeatherListDTO addLinksByIP(HourlyWeatherListDTO dto) {
 		
-		dto.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByIPAddress(null)).withSelfRel());
+		String baseUri = WeatherLinks.getBaseUri();
 		
-		dto.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByIPAddress(null)).withRel("realtime_weather"));
+		dto.add(WeatherLinks.HOURLY_BY_IP.withSelfRel(baseUri));
 		
-		dto.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByIPAddress(null)).withRel("daily_forecast"));	
+		dto.add(WeatherLinks.REALTIME_BY_IP.withRel(baseUri, "realtime_weather"));
 		
-		dto.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByIPAddress(null)).withRel("full_forecast"));		
+		dto.add(WeatherLinks.DAILY_BY_IP.withRel(baseUri, "daily_forecast"));	
+		
+		dto.add(WeatherLinks.FULL_BY_IP.withRel(baseUri, "full_forecast"));		
 		
 		return dto;
 	}	
 	
 	private HourlyWeatherListDTO addLinksByLocation(HourlyWeatherListDTO dto, String locationCode) {
 		
-		dto.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(locationCode, null)).withSelfRel());
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		dto.add(WeatherLinks.HOURLY_BY_CODE.withSelfRel(baseUri, locationCode));
 		
-		dto.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(locationCode)).withRel("realtime_weather"));
+		dto.add(WeatherLinks.REALTIME_BY_CODE.withRel(baseUri, locationCode, "realtime_weather"));
 		
-		dto.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(locationCode)).withRel("daily_forecast"));	
+		dto.add(WeatherLinks.DAILY_BY_CODE.withRel(baseUri, locationCode, "daily_forecast"));	
 		
-		dto.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(locationCode)).withRel("full_forecast"));		
+		dto.add(WeatherLinks.FULL_BY_CODE.withRel(baseUri, locationCode, "full_forecast"));		
 		
 		return dto;
 	}		
@@ -0,0 +1,17 @@
+package com.skyapi.weatherforecast.hourly;
+
+import com.skyapi.weatherforecast.common.HourlyWeather;
+
+public class HourlyWeatherMapper {
+	
+	public static HourlyWeatherDTO toDTO(HourlyWeather entity) {
+		HourlyWeatherDTO dto = new HourlyWeatherDTO();
+		
+		dto.setHourOfDay(entity.getId().getHourOfDay());
+		dto.setTemperature(entity.getTemperature());
+		dto.setPrecipitation(entity.getPrecipitation());
+		dto.setStatus(entity.getStatus());
+		
+		return dto;
+	}
+}
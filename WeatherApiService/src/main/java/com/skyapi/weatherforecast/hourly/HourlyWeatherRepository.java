@@ -1,5 +1,6 @@
 package com.skyapi.weatherforecast.hourly;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
@@ -17,4 +18,11 @@ public interface HourlyWeatherRepository extends CrudRepository<HourlyWeather, H
 			AND h.id.location.trashed = false
 			""")
 	public List<HourlyWeather> findByLocationCode(String locationCode, int currentHour);
+	
+	@Query("""
+			SELECT h FROM HourlyWeather h JOIN FETCH h.id.location l WHERE
+			l.code IN ?1 AND h.id.hourOfDay > ?2
+			AND l.trashed = false
+			""")
+	public List<HourlyWeather> findByLocationCodes(Collection<String> locationCodes, int currentHour);
 }
@@ -1,15 +1,29 @@
 package com.skyapi.weatherforecast.hourly;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.skyapi.weatherforecast.ForecastMergeResult;
+import com.skyapi.weatherforecast.ForecastFingerprints;
+import com.skyapi.weatherforecast.ForecastFingerprints.Kind;
+import com.skyapi.weatherforecast.ForecastMerger;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class HourlyWeatherService {
 
@@ -17,37 +31,126 @@ public class HourlyWeatherService {
 	
 	private LocationRepository locationRepo;
 	
-	public HourlyWeatherService(HourlyWeatherRepository hourlyWeatherRepo, LocationRepository locationRepo) {
+	private LocationCodeIndex locationCodeIndex;
+	
+	private LocationCache locationCache;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private ForecastFingerprints forecastFingerprints;
+	
+	private LocalHourResolver localHourResolver;
+	
+	public HourlyWeatherService(HourlyWeatherRepository hourlyWeatherRepo, LocationRepository locationRepo, 
+			LocationCodeIndex locationCodeIndex, LocationCache locationCache, 
+			ApplicationEventPublisher eventPublisher, LocalHourResolver localHourResolver, 
+			ForecastFingerprints forecastFingerprints) {
 		super();
 		this.hourlyWeatherRepo = hourlyWeatherRepo;
 		this.locationRepo = locationRepo;
+		this.locationCodeIndex = locationCodeIndex;
+		this.locationCache = locationCache;
+		this.eventPublisher = eventPublisher;
+		this.localHourResolver = localHourResolver;
+		this.forecastFingerprints = forecastFingerprints;
 	}
 	
 	public List<HourlyWeather> getByLocation(Location location, int currentHour) {
 		String countryCode = location.getCountryCode();
 		String cityName = location.getCityName();
 		
-		Location locationInDB = locationRepo.findByCountryCodeAndCityName(countryCode, cityName);
+		String locationCode = locationCodeIndex.getCode(countryCode, cityName);
 		
-		if (locationInDB == null) {
+		if (locationCode == null) {
 			throw new LocationNotFoundException(countryCode, cityName);
 		}
 		
-		return hourlyWeatherRepo.findByLocationCode(locationInDB.getCode(), currentHour);
+		return hourlyWeatherRepo.findByLocationCode(locationCode, currentHour);
 	}
 	
 	public List<HourlyWeather> getByLocationCode(String locationCode, int currentHour) {
 		
-		Location locationInDB = locationRepo.findByCode(locationCode);
-		
-		if (locationInDB == null) {
+		if (locationCache.get(locationCode).isEmpty()) {
 			throw new LocationNotFoundException(locationCode);
 		}
 		
 		return hourlyWeatherRepo.findByLocationCode(locationCode, currentHour);
 	}	
 	
-	public List<HourlyWeather> updateByLocationCode(String locationCode, List<HourlyWeather> hourlyWeatherInRequest) {
+	// the current hour may differ per location, so each chunk is read from its earliest hour and filtered.
+	// Unknown locations are left out
+	// rows carry the stored code, which a requested code may differ from in case only: they are
+	// grouped by that canonical code, and returned under the requested one
+	public Map<String, List<HourlyWeather>> getByLocationCodes(Map<String, Integer> currentHourByCode) {
+		Map<String, String> canonicalCodeByCode = new HashMap<>();
+		Map<String, Integer> currentHourByCanonicalCode = new HashMap<>();
+		
+		currentHourByCode.forEach((code, currentHour) -> locationCache.get(code).ifPresent(location -> {
+			canonicalCodeByCode.put(code, location.getCode());
+			currentHourByCanonicalCode.put(location.getCode(), currentHour);
+		}));
+		
+		Map<String, List<HourlyWeather>> forecastByCanonicalCode = new HashMap<>();
+		
+		currentHourByCanonicalCode.keySet().forEach(code -> forecastByCanonicalCode.put(code, new ArrayList<>()));
+		
+		for (List<String> chunk : LocationCodeBatch.chunks(new ArrayList<>(currentHourByCanonicalCode.keySet()))) {
+			int earliestHour = chunk.stream().mapToInt(currentHourByCanonicalCode::get).min().getAsInt();
+			
+			for (HourlyWeather hourlyWeather : hourlyWeatherRepo.findByLocationCodes(chunk, earliestHour)) {
+				String code = hourlyWeather.getId().getLocation().getCode();
+				
+				if (hourlyWeather.getId().getHourOfDay() > currentHourByCanonicalCode.get(code)) {
+					forecastByCanonicalCode.get(code).add(hourlyWeather);
+				}
+			}
+		}
+		
+		Map<String, List<HourlyWeather>> forecastByCode = new HashMap<>();
+		
+		canonicalCodeByCode.forEach((code, canonicalCode) -> forecastByCode.put(code, forecastByCanonicalCode.get(canonicalCode)));
+		
+		return forecastByCode;
+	}
+	
+	// null when the location has no (valid) time zone
+	public LocalHour getLocalHour(Location location) {
+		String countryCode = location.getCountryCode();
+		String cityName = location.getCityName();
+		
+		String locationCode = locationCodeIndex.getCode(countryCode, cityName);
+		
+		if (locationCode == null) {
+			throw new LocationNotFoundException(countryCode, cityName);
+		}
+		
+		return getLocalHour(locationCode);
+	}
+	
+	public LocalHour getLocalHour(String locationCode) {
+		Location location = locationCache.get(locationCode)
+				.orElseThrow(() -> new LocationNotFoundException(locationCode));
+		
+		return localHourResolver.resolve(location.getTimeZone());
+	}
+	
+	@Transactional
+	public ForecastMergeResult<HourlyWeather> updateByLocationCode(String locationCode, List<HourlyWeather> hourlyWeatherInRequest) {
+		
+		String fingerprint = fingerprint(hourlyWeatherInRequest);
+		
+		// with the memo enabled, a resent forecast is answered from the location cache without any statement;
+		// otherwise the merge below finds every stored row unchanged and writes nothing
+		if (forecastFingerprints.matches(Kind.HOURLY, locationCode, fingerprint)) {
+			Location location = locationCache.get(locationCode)
+					.orElseThrow(() -> new LocationNotFoundException(locationCode));
+			
+			hourlyWeatherInRequest.forEach(item -> item.getId().setLocation(location));
+			
+			return ForecastMergeResult.allUnchanged(hourlyWeatherInRequest);
+		}
+		
+		long generation = forecastFingerprints.beginUpdate(Kind.HOURLY, locationCode);
 		
 		Location location = locationRepo.findByCode(locationCode);
 		
@@ -60,18 +163,25 @@ public class HourlyWeatherService {
 		}
 		
 		List<HourlyWeather> hourlyWeatherInDB = location.getListHourlyWeather();
-		List<HourlyWeather> hourlyWeatherToBeRemoved = new ArrayList<>();
 		
-		for (HourlyWeather item : hourlyWeatherInDB) {
-			if (!hourlyWeatherInRequest.contains(item)) {
-				hourlyWeatherToBeRemoved.add(item.getShallowCopy());
-			}
-		}
+		ForecastMergeResult<HourlyWeather> result = ForecastMerger.merge(hourlyWeatherInDB, hourlyWeatherInRequest, 
+				HourlyWeather::getId, HourlyWeather::hasSameDataAs, HourlyWeather::copyDataFrom);
+		
+		// orphan removal deletes, cascade inserts, and dirty checking flushes only the updated rows
+		hourlyWeatherInDB.removeAll(new HashSet<>(result.getDeleted()));
+		hourlyWeatherInDB.addAll(result.getInserted());
+		
+		forecastFingerprints.put(Kind.HOURLY, locationCode, generation, fingerprint);
 		
-		for (HourlyWeather item : hourlyWeatherToBeRemoved) {
-			hourlyWeatherInDB.remove(item);
+		if (result.hasChanges()) {
+			eventPublisher.publishEvent(new WeatherDataUpdatedEvent(locationCode));
 		}
 		
-		return (List<HourlyWeather>) hourlyWeatherRepo.saveAll(hourlyWeatherInRequest);
+		return result;
+	}
+	
+	public static String fingerprint(List<HourlyWeather> hourlyForecast) {
+		return ForecastFingerprints.of(hourlyForecast, hourlyWeather -> hourlyWeather.getId().getHourOfDay() + "|" 
+				+ hourlyWeather.getTemperature() + "|" + hourlyWeather.getPrecipitation() + "|" + hourlyWeather.getStatus());
 	}
 }
\ No newline at end of file
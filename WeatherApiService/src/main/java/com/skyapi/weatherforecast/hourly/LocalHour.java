@@ -0,0 +1,6 @@
+package com.skyapi.weatherforecast.hourly;
+
+import java.time.Instant;
+
+// the current hour of day at a location; validUntil is null when the hour was given by the client
+public record LocalHour(int hour, Instant validUntil) { }
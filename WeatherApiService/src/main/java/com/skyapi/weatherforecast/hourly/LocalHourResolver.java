@@ -0,0 +1,61 @@
+package com.skyapi.weatherforecast.hourly;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+// current local hour of a time zone, with the rules of each zone looked up once
+@Component
+public class LocalHourResolver {
+	
+	private Clock clock;
+	
+	// empty for unknown time zone IDs
+	private Map<String, Optional<ZoneRules>> rulesByTimeZone = new ConcurrentHashMap<>();
+
+	public LocalHourResolver() {
+		this(Clock.systemUTC());
+	}
+	
+	LocalHourResolver(Clock clock) {
+		this.clock = clock;
+	}
+	
+	// null when the time zone is missing or invalid
+	public LocalHour resolve(String timeZone) {
+		if (timeZone == null) {
+			return null;
+		}
+		
+		Optional<ZoneRules> rules = rulesByTimeZone.computeIfAbsent(timeZone, this::loadRules);
+		
+		if (rules.isEmpty()) {
+			return null;
+		}
+		
+		Instant now = clock.instant();
+		OffsetDateTime localTime = now.atOffset(rules.get().getOffset(now));
+		
+		// daylight saving transitions happen on the hour in (nearly) every zone, so this is also when they apply
+		Instant nextHour = localTime.truncatedTo(ChronoUnit.HOURS).plusHours(1).toInstant();
+		
+		return new LocalHour(localTime.getHour(), nextHour);
+	}
+	
+	private Optional<ZoneRules> loadRules(String timeZone) {
+		try {
+			return Optional.of(ZoneId.of(timeZone).getRules());
+		} catch (DateTimeException ex) {
+			return Optional.empty();
+		}
+	}
+}
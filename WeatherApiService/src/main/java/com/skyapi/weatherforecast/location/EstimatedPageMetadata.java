@@ -0,0 +1,21 @@
+package com.skyapi.weatherforecast.location;
+
+import org.springframework.hateoas.PagedModel.PageMetadata;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// page metadata of a listing served without a count query:
+// total elements/pages only cover the rows seen so far (plus one if there is a next page)
+public class EstimatedPageMetadata extends PageMetadata {
+
+	@JsonProperty
+	private boolean estimated = true;
+	
+	public EstimatedPageMetadata(long size, long number, long totalElements) {
+		super(size, number, totalElements);
+	}
+
+	public boolean isEstimated() {
+		return estimated;
+	}
+}
@@ -1,13 +1,23 @@
 package com.skyapi.weatherforecast.location;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import com.skyapi.weatherforecast.common.Location;
 
 public interface FilterableLocationRepository {
 
 	public Page<Location> listWithFilter(Pageable pageable, Map<String, Object> filterFields);
+	
+	public Slice<Location> listWithFilterWithoutCount(Pageable pageable, Map<String, Object> filterFields);
+	
+	public Slice<Location> listWithFilterAfter(Pageable pageable, List<Object> afterKeys, Map<String, Object> filterFields);
+	
+	public Stream<Location> streamWithFilter(Sort sort, Map<String, Object> filterFields);
 }
\ No newline at end of file
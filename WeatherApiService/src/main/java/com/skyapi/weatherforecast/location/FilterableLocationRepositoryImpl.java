@@ -1,15 +1,27 @@
 package com.skyapi.weatherforecast.location;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import com.skyapi.weatherforecast.common.Location;
 
@@ -17,6 +29,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
@@ -27,6 +40,16 @@ public class FilterableLocationRepositoryImpl implements FilterableLocationRepos
 
 	@Autowired EntityManager entityManager;
 	
+	// total rows per filter combination, dropped whenever a location is written
+	private Cache<Map<String, Object>, Long> totalRowsCache;
+	
+	public FilterableLocationRepositoryImpl(@Value("${location.count-cache.ttl-seconds:300}") long ttlSeconds) {
+		this.totalRowsCache = Caffeine.newBuilder()
+				.maximumSize(1000)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.build();
+	}
+	
 	@Override
 	public Page<Location> listWithFilter(Pageable pageable, Map<String, Object> filterFields) {
 		
@@ -37,36 +60,167 @@ public class FilterableLocationRepositoryImpl implements FilterableLocationRepos
 		entityQuery.select(builder.construct(Location.class, 
 				entityRoot.get("code"), entityRoot.get("cityName"),
 				entityRoot.get("regionName"), entityRoot.get("countryName"),
-				entityRoot.get("countryCode"), entityRoot.get("enabled")));
+				entityRoot.get("countryCode"), entityRoot.get("enabled"), entityRoot.get("timeZone"),
+				entityRoot.get("latitude"), entityRoot.get("longitude")));
 		
 		Predicate[] predicates = createPredicates(filterFields, builder, entityRoot);
 		
 		if (predicates.length > 0) entityQuery.where(predicates);
 		
+		entityQuery.orderBy(createOrders(pageable.getSort(), builder, entityRoot));
+		
+		TypedQuery<Location> typedQuery = entityManager.createQuery(entityQuery);
+		
+		typedQuery.setFirstResult((int) pageable.getOffset());
+		typedQuery.setMaxResults(pageable.getPageSize());
+		
+		List<Location> listResult = typedQuery.getResultList();
+		
+		long totalRows = totalRowsCache.get(Map.copyOf(filterFields), this::getTotalRows);
+		
+		return new PageImpl<>(listResult, pageable, totalRows);
+	}
+
+	@Override
+	public Slice<Location> listWithFilterWithoutCount(Pageable pageable, Map<String, Object> filterFields) {
+		
+		return listSlice(pageable, null, filterFields);
+	}
+	
+	@Override
+	public Slice<Location> listWithFilterAfter(Pageable pageable, List<Object> afterKeys, Map<String, Object> filterFields) {
+		
+		return listSlice(pageable, afterKeys, filterFields);
+	}
+	
+	// forward-only over every matching row, as detached projections, so nothing accumulates in the
+	// persistence context. The stream has to be closed, and consumed within a transaction
+	@Override
+	public Stream<Location> streamWithFilter(Sort sort, Map<String, Object> filterFields) {
+		
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Location> entityQuery = builder.createQuery(Location.class);
+		
+		Root<Location> entityRoot = entityQuery.from(Location.class);
+		entityQuery.select(builder.construct(Location.class, 
+				entityRoot.get("code"), entityRoot.get("cityName"),
+				entityRoot.get("regionName"), entityRoot.get("countryName"),
+				entityRoot.get("countryCode"), entityRoot.get("enabled"), entityRoot.get("timeZone"),
+				entityRoot.get("latitude"), entityRoot.get("longitude")));
+		
+		entityQuery.where(createPredicates(filterFields, builder, entityRoot));
+		entityQuery.orderBy(createOrders(sort, builder, entityRoot));
+		
+		TypedQuery<Location> typedQuery = entityManager.createQuery(entityQuery);
+		
+		// the MySQL driver reads the whole result set into memory unless the fetch size is Integer.MIN_VALUE
+		typedQuery.setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE);
+		typedQuery.setHint(HibernateHints.HINT_READ_ONLY, true);
+		
+		return typedQuery.getResultStream();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		totalRowsCache.invalidateAll();
+	}
+	
+	private Slice<Location> listSlice(Pageable pageable, List<Object> afterKeys, Map<String, Object> filterFields) {
+		
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Location> entityQuery = builder.createQuery(Location.class);
+		
+		Root<Location> entityRoot = entityQuery.from(Location.class);
+		entityQuery.select(builder.construct(Location.class, 
+				entityRoot.get("code"), entityRoot.get("cityName"),
+				entityRoot.get("regionName"), entityRoot.get("countryName"),
+				entityRoot.get("countryCode"), entityRoot.get("enabled"), entityRoot.get("timeZone"),
+				entityRoot.get("latitude"), entityRoot.get("longitude")));
+		
+		List<Predicate> predicates = new ArrayList<>(List.of(createPredicates(filterFields, builder, entityRoot)));
+		
+		if (afterKeys != null) {
+			predicates.add(createKeysetPredicate(pageable.getSort(), afterKeys, builder, entityRoot));
+		}
+		
+		entityQuery.where(predicates.toArray(new Predicate[0]));
+		entityQuery.orderBy(createOrders(pageable.getSort(), builder, entityRoot));
+		
+		TypedQuery<Location> typedQuery = entityManager.createQuery(entityQuery);
+		
+		// one extra row tells whether there is a next page, without counting
+		typedQuery.setFirstResult((int) pageable.getOffset());
+		typedQuery.setMaxResults(pageable.getPageSize() + 1);
+		
+		List<Location> listResult = typedQuery.getResultList();
+		
+		boolean hasNext = listResult.size() > pageable.getPageSize();
+		
+		if (hasNext) {
+			listResult = listResult.subList(0, pageable.getPageSize());
+		}
+		
+		return new SliceImpl<>(listResult, pageable, hasNext);
+	}
+	
+	private List<Order> createOrders(Sort sort, CriteriaBuilder builder, Root<Location> root) {
 		List<Order> listOrder = new ArrayList<>();
 		
-		pageable.getSort().stream().forEach(order -> {
+		sort.stream().forEach(order -> {
 			System.out.println("Order field: " + order.getProperty());
 			
 			if (order.isAscending()) {
-				listOrder.add(builder.asc(entityRoot.get(order.getProperty())));
+				listOrder.add(builder.asc(root.get(order.getProperty())));
 			} else {
-				listOrder.add(builder.desc(entityRoot.get(order.getProperty())));
+				listOrder.add(builder.desc(root.get(order.getProperty())));
 			}
 		});
 		
-		entityQuery.orderBy(listOrder);
+		return listOrder;
+	}
+	
+	// (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... with > flipped to < for descending keys.
+	// MySQL sorts NULLs first, so they precede any value ascending and follow any value descending.
+	private Predicate createKeysetPredicate(Sort sort, List<Object> afterKeys, CriteriaBuilder builder, Root<Location> root) {
+		List<Sort.Order> orders = sort.toList();
 		
-		TypedQuery<Location> typedQuery = entityManager.createQuery(entityQuery);
+		List<Predicate> alternatives = new ArrayList<>();
+		List<Predicate> equalities = new ArrayList<>();
 		
-		typedQuery.setFirstResult((int) pageable.getOffset());
-		typedQuery.setMaxResults(pageable.getPageSize());
+		for (int i = 0; i < orders.size(); i++) {
+			Sort.Order order = orders.get(i);
+			Expression<Comparable<Object>> field = root.get(order.getProperty());
+			Object afterKey = afterKeys.get(i);
+			
+			Predicate after = createAfterPredicate(field, afterKey, order.isAscending(), builder);
+			
+			if (after != null) {
+				List<Predicate> alternative = new ArrayList<>(equalities);
+				alternative.add(after);
+				
+				alternatives.add(builder.and(alternative.toArray(new Predicate[0])));
+			}
+			
+			equalities.add(afterKey == null ? builder.isNull(field) : builder.equal(field, afterKey));
+		}
 		
-		List<Location> listResult = typedQuery.getResultList();
+		return builder.or(alternatives.toArray(new Predicate[0]));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Predicate createAfterPredicate(Expression<Comparable<Object>> field, Object afterKey, boolean ascending, CriteriaBuilder builder) {
 		
-		long totalRows = getTotalRows(filterFields);
+		if (afterKey == null) {
+			return ascending ? builder.isNotNull(field) : null;
+		}
 		
-		return new PageImpl<>(listResult, pageable, totalRows);
+		Comparable<Object> value = (Comparable<Object>) afterKey;
+		
+		if (ascending) {
+			return builder.greaterThan(field, value);
+		}
+		
+		return builder.or(builder.lessThan(field, value), builder.isNull(field));
 	}
 
 	private Predicate[] createPredicates(Map<String, Object> filterFields, CriteriaBuilder builder, Root<Location> root) {
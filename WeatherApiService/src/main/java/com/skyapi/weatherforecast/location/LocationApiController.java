@@ -3,6 +3,8 @@ package com.skyapi.weatherforecast.location;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
@@ -11,10 +13,12 @@ import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.PagedModel.PageMetadata;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,23 +31,38 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.WeatherLinks;
 import com.skyapi.weatherforecast.common.Location;
-import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
-import com.skyapi.weatherforecast.full.FullWeatherApiController;
-import com.skyapi.weatherforecast.hourly.HourlyWeatherApiController;
-import com.skyapi.weatherforecast.realtime.RealtimeWeatherApiController;
+import com.skyapi.weatherforecast.location.LocationImportService.Format;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 @RestController
 @Validated
 @RequestMapping("/v1/locations")
 public class LocationApiController {
 	
+	private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+	
+	private static final String CSV_CONTENT_TYPE = "text/csv";
+	
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	
 	private LocationService locationService;
+	private LocationImportService importService;
+	private LocationSuggestIndex suggestIndex;
+	private LocationNearbyIndex nearbyIndex;
 	private ModelMapper modelMapper;
 	
 	private Map<String, String> propertyMap = Map.of(
@@ -55,9 +74,13 @@ public class LocationApiController {
 		"enabled", "enabled"
 	);
 
-	public LocationApiController(LocationService service, ModelMapper modelMapper) {
+	public LocationApiController(LocationService service, LocationImportService importService, 
+			LocationSuggestIndex suggestIndex, LocationNearbyIndex nearbyIndex, ModelMapper modelMapper) {
 		super();
 		this.locationService = service;
+		this.importService = importService;
+		this.suggestIndex = suggestIndex;
+		this.nearbyIndex = nearbyIndex;
 		this.modelMapper = modelMapper;
 	}
 
@@ -120,6 +143,264 @@ public class LocationApiController {
 				listEntity2ListDTO(locations), page, sortOption, enabled, regionName, countryCode));		
 	}
 
+	@GetMapping(params = {"count=false", "!after"})
+	public ResponseEntity<?> listLocationsWithoutCount(
+			@RequestParam(value = "page", required = false, defaultValue = "1") 
+								@Min(value = 1)	Integer pageNum,
+								
+			@RequestParam(value = "size", required = false, defaultValue = "5") 
+								@Min(value = 5) @Max(value = 20) Integer pageSize,
+								
+			@RequestParam(value = "sort", required = false, defaultValue = "code") String sortOption,
+			
+			@RequestParam(value = "enabled", required = false, defaultValue = "") String enabled,
+			
+			@RequestParam(value = "region_name", required = false, defaultValue = "") String regionName,
+			
+			@RequestParam(value = "country_code", required = false, defaultValue = "") String countryCode,
+			
+			@RequestParam(value = "count") Boolean count
+			
+			) throws BadRequestException {
+		
+		String translatedSortOption = validateSortOption(sortOption);
+				
+		Map<String, Object> filterFields = getFilterFields(enabled, regionName, countryCode);		
+		
+		Slice<Location> slice = locationService.listByPageWithoutCount(pageNum - 1, pageSize, translatedSortOption, filterFields);
+		
+		List<Location> locations = slice.getContent();
+		
+		if (locations.isEmpty()) {
+			return ResponseEntity.noContent().build();
+		}
+		
+		return ResponseEntity.ok(addEstimatedPageMetadataAndLinks2Collection(
+				listEntity2ListDTO(locations), slice, sortOption, enabled, regionName, countryCode));		
+	}
+	
+	@GetMapping(params = "after")
+	public ResponseEntity<?> listLocationsByCursor(
+			@RequestParam(value = "after", required = false, defaultValue = "") String after,
+			
+			@RequestParam(value = "size", required = false, defaultValue = "5") 
+								@Min(value = 5) @Max(value = 20) Integer pageSize,
+								
+			@RequestParam(value = "sort", required = false, defaultValue = "code") String sortOption,
+			
+			@RequestParam(value = "enabled", required = false, defaultValue = "") String enabled,
+			
+			@RequestParam(value = "region_name", required = false, defaultValue = "") String regionName,
+			
+			@RequestParam(value = "country_code", required = false, defaultValue = "") String countryCode
+			
+			) throws BadRequestException {
+		
+		String translatedSortOption = validateSortOption(sortOption);
+		
+		// an empty token starts the walk from the first row
+		List<Object> afterKeys = "".equals(after) ? null : LocationCursor.decode(after, sortOption);
+		
+		Map<String, Object> filterFields = getFilterFields(enabled, regionName, countryCode);
+		
+		Slice<Location> slice = locationService.listByCursor(pageSize, translatedSortOption, afterKeys, filterFields);
+		
+		List<Location> locations = slice.getContent();
+		
+		if (locations.isEmpty()) {
+			return ResponseEntity.noContent().build();
+		}
+		
+		return ResponseEntity.ok(addCursorLinks2Collection(
+				listEntity2ListDTO(locations), slice, after, sortOption, enabled, regionName, countryCode));
+	}
+
+	// answered from memory on each keystroke, so it bypasses the (transactional) service
+	@GetMapping("/suggest")
+	public ResponseEntity<?> suggestLocations(
+			@RequestParam("q") @NotBlank @Size(max = 128) String query,
+			
+			@RequestParam(value = "limit", required = false, defaultValue = "10") 
+								@Min(value = 1) @Max(value = 50) Integer limit) {
+		
+		List<LocationSuggestion> suggestions = suggestIndex.suggest(query, limit);
+		
+		if (suggestions.isEmpty()) {
+			return ResponseEntity.noContent().build();
+		}
+		
+		return ResponseEntity.ok(suggestions);
+	}
+	
+	// answered from memory, like the suggestions
+	@GetMapping("/nearby")
+	public ResponseEntity<?> listNearbyLocations(
+			@RequestParam("lat") @DecimalMin("-90.0") @DecimalMax("90.0") Double latitude,
+			
+			@RequestParam("lon") @DecimalMin("-180.0") @DecimalMax("180.0") Double longitude,
+			
+			@RequestParam(value = "k", required = false, defaultValue = "5") 
+								@Min(value = 1) @Max(value = 50) Integer k) {
+		
+		List<NearbyLocation> locations = nearbyIndex.findNearest(latitude, longitude, k);
+		
+		if (locations.isEmpty()) {
+			return ResponseEntity.noContent().build();
+		}
+		
+		return ResponseEntity.ok(locations);
+	}
+	
+	// the whole catalog in one response, one location per line. Rows are read through a forward-only
+	// cursor and written as they come, so neither side holds more than a buffer
+	@GetMapping("/export")
+	public void exportLocations(
+			@RequestParam(value = "sort", required = false, defaultValue = "code") String sortOption,
+			
+			@RequestParam(value = "enabled", required = false, defaultValue = "") String enabled,
+			
+			@RequestParam(value = "region_name", required = false, defaultValue = "") String regionName,
+			
+			@RequestParam(value = "country_code", required = false, defaultValue = "") String countryCode,
+			
+			HttpServletResponse response
+			
+			) throws BadRequestException, IOException {
+		
+		String translatedSortOption = validateSortOption(sortOption);
+		
+		Map<String, Object> filterFields = getFilterFields(enabled, regionName, countryCode);
+		
+		response.setContentType(NDJSON_CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getOutputStream())) {
+			generator.setRootValueSeparator(null);
+			
+			try {
+				locationService.exportWithFilter(translatedSortOption, filterFields, location -> writeNdjsonLine(generator, location));
+			} catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+		}
+	}
+	
+	// the body is read while it arrives. The response has a line per rejected row, a progress line per batch
+	// and a summary line at the end
+	@PostMapping(path = "/import", consumes = {CSV_CONTENT_TYPE, NDJSON_CONTENT_TYPE})
+	public void importLocations(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		
+		Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV_CONTENT_TYPE)) 
+				? Format.CSV : Format.NDJSON;
+		
+		response.setContentType(NDJSON_CONTENT_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(response.getOutputStream())) {
+			generator.setRootValueSeparator(null);
+			
+			LocationImportProgress summary;
+			
+			try {
+				summary = importService.importLocations(format, request.getInputStream(), new LocationImportListener() {
+					
+					@Override
+					public void onRowRejected(LocationImportError error) {
+						writeNdjsonLine(generator, error);
+					}
+					
+					@Override
+					public void onBatchCompleted(LocationImportProgress progress) {
+						writeNdjsonLine(generator, "progress", progress);
+						
+						try {
+							generator.flush();
+							response.flushBuffer();
+						} catch (IOException ex) {
+							throw new UncheckedIOException(ex);
+						}
+					}
+				});
+			} catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+			
+			writeNdjsonLine(generator, "summary", summary);
+		}
+	}
+	
+	private void writeNdjsonLine(JsonGenerator generator, LocationImportError error) {
+		try {
+			generator.writeStartObject();
+			generator.writeStringField("type", "error");
+			generator.writeNumberField("row", error.row());
+			
+			if (error.code() != null) {
+				generator.writeStringField("code", error.code());
+			}
+			
+			generator.writeArrayFieldStart("errors");
+			
+			for (String message : error.errors()) {
+				generator.writeString(message);
+			}
+			
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+	
+	private void writeNdjsonLine(JsonGenerator generator, String type, LocationImportProgress progress) {
+		try {
+			generator.writeStartObject();
+			generator.writeStringField("type", type);
+			generator.writeNumberField("rows", progress.rows());
+			generator.writeNumberField("inserted", progress.inserted());
+			generator.writeNumberField("rejected", progress.rejected());
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+	
+	// same field names and inclusion as LocationDTO
+	private void writeNdjsonLine(JsonGenerator generator, Location location) {
+		try {
+			generator.writeStartObject();
+			generator.writeStringField("code", location.getCode());
+			generator.writeStringField("city_name", location.getCityName());
+			
+			if (location.getRegionName() != null) {
+				generator.writeStringField("region_name", location.getRegionName());
+			}
+			
+			generator.writeStringField("country_code", location.getCountryCode());
+			generator.writeStringField("country_name", location.getCountryName());
+			generator.writeBooleanField("enabled", location.isEnabled());
+			
+			if (location.getTimeZone() != null) {
+				generator.writeStringField("time_zone", location.getTimeZone());
+			}
+			
+			if (location.getLatitude() != null) {
+				generator.writeNumberField("latitude", location.getLatitude());
+			}
+			
+			if (location.getLongitude() != null) {
+				generator.writeNumberField("longitude", location.getLongitude());
+			}
+			
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
 	private Map<String, Object> getFilterFields(String enabled, String regionName, String countryCode) {
 		Map<String, Object> filterFields = new HashMap<>();
 		
@@ -177,8 +458,10 @@ public class LocationApiController {
 		
 				 
 		// add self link to each individual item
+		String baseUri = WeatherLinks.getBaseUri();
+		
 		for (LocationDTO dto : listDTO) {
-			dto.add(linkTo(methodOn(LocationApiController.class).getLocation(dto.getCode())).withSelfRel());
+			dto.add(WeatherLinks.LOCATION.withSelfRel(baseUri, dto.getCode()));
 		}
 		
 		int pageSize = pageInfo.getSize();
@@ -228,6 +511,107 @@ public class LocationApiController {
 		
 	}
 	
+	private CollectionModel<LocationDTO> addEstimatedPageMetadataAndLinks2Collection(
+			List<LocationDTO> listDTO, Slice<Location> sliceInfo, String sortOption,
+			String enabled, String regionName, String countryCode) throws BadRequestException {
+		
+		String actualEnabled = "".equals(enabled) ? null : enabled;
+		String actualRegionName = "".equals(regionName) ? null : regionName;
+		String actualCountryCode = "".equals(countryCode) ? null : countryCode;
+		
+		// add self link to each individual item
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		for (LocationDTO dto : listDTO) {
+			dto.add(WeatherLinks.LOCATION.withSelfRel(baseUri, dto.getCode()));
+		}
+		
+		int pageSize = sliceInfo.getSize();
+		int pageNum = sliceInfo.getNumber() + 1;
+		
+		// lower bound: the rows up to this page, plus one more if there is a next page
+		long seenElements = sliceInfo.getPageable().getOffset() + sliceInfo.getNumberOfElements() + (sliceInfo.hasNext() ? 1 : 0);
+		
+		PageMetadata pageMetadata = new EstimatedPageMetadata(pageSize, pageNum, seenElements);
+		
+		CollectionModel<LocationDTO> collectionModel = PagedModel.of(listDTO, pageMetadata);
+		
+		// add self link to collection
+		collectionModel.add(linkTo(methodOn(LocationApiController.class)
+								.listLocationsWithoutCount(pageNum, pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode, false))
+									.withSelfRel());
+		
+		if (pageNum > 1) {
+			// add link to first page if the current page is not the first one
+			collectionModel.add(
+					linkTo(methodOn(LocationApiController.class)
+							.listLocationsWithoutCount(1, pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode, false))
+								.withRel(IanaLinkRelations.FIRST));
+			
+			// add link to the previous page if the current page is not the first one
+			collectionModel.add(
+					linkTo(methodOn(LocationApiController.class)
+							.listLocationsWithoutCount(pageNum - 1, pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode, false))
+								.withRel(IanaLinkRelations.PREV));			
+		}	
+		
+		if (sliceInfo.hasNext()) {
+			// add link to next page, there is no last link since the total is unknown
+			collectionModel.add(
+					linkTo(methodOn(LocationApiController.class)
+							.listLocationsWithoutCount(pageNum + 1, pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode, false))
+								.withRel(IanaLinkRelations.NEXT));			
+		}
+		
+		return collectionModel;
+	}
+	
+	private CollectionModel<LocationDTO> addCursorLinks2Collection(
+			List<LocationDTO> listDTO, Slice<Location> slice, String after, String sortOption,
+			String enabled, String regionName, String countryCode) throws BadRequestException {
+		
+		String actualEnabled = "".equals(enabled) ? null : enabled;
+		String actualRegionName = "".equals(regionName) ? null : regionName;
+		String actualCountryCode = "".equals(countryCode) ? null : countryCode;
+		
+		// add self link to each individual item
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		for (LocationDTO dto : listDTO) {
+			dto.add(WeatherLinks.LOCATION.withSelfRel(baseUri, dto.getCode()));
+		}
+		
+		int pageSize = slice.getSize();
+		
+		CollectionModel<LocationDTO> collectionModel = CollectionModel.of(listDTO);
+		
+		// add self link to collection
+		collectionModel.add(linkTo(methodOn(LocationApiController.class)
+								.listLocationsByCursor(after, pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode))
+									.withSelfRel());
+		
+		if (!"".equals(after)) {
+			// add link to first page if the current page is not the first one
+			collectionModel.add(
+					linkTo(methodOn(LocationApiController.class)
+							.listLocationsByCursor("", pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode))
+								.withRel(IanaLinkRelations.FIRST));
+		}
+		
+		if (slice.hasNext()) {
+			// add link to next page, keyed on the last location of this one
+			List<Location> locations = slice.getContent();
+			String nextCursor = LocationCursor.encode(sortOption, slice.getSort(), locations.get(locations.size() - 1));
+			
+			collectionModel.add(
+					linkTo(methodOn(LocationApiController.class)
+							.listLocationsByCursor(nextCursor, pageSize, sortOption, actualEnabled, actualRegionName, actualCountryCode))
+								.withRel(IanaLinkRelations.NEXT));
+		}
+		
+		return collectionModel;
+	}
+	
 	@GetMapping("/{code}")
 	public ResponseEntity<?> getLocation(@PathVariable("code") String code) {
 		
@@ -259,7 +643,7 @@ public class LocationApiController {
 	}
 	
 	private LocationDTO entity2DTO(Location entity) {
-		return modelMapper.map(entity, LocationDTO.class);
+		return LocationMapper.toDTO(entity);
 	}
 	
 	private Location dto2Entity(LocationDTO dto) {
@@ -268,15 +652,17 @@ public class LocationApiController {
 	
     private LocationDTO addLinks2Item(LocationDTO dto) {
 		
-		dto.add(linkTo(methodOn(LocationApiController.class).getLocation(dto.getCode())).withSelfRel());	
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		dto.add(WeatherLinks.LOCATION.withSelfRel(baseUri, dto.getCode()));	
 		
-		dto.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(dto.getCode())).withRel("realtime_weather"));	
+		dto.add(WeatherLinks.REALTIME_BY_CODE.withRel(baseUri, dto.getCode(), "realtime_weather"));	
 		
-		dto.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(dto.getCode(), null)).withRel("hourly_forecast"));
+		dto.add(WeatherLinks.HOURLY_BY_CODE.withRel(baseUri, dto.getCode(), "hourly_forecast"));
 		
-		dto.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(dto.getCode())).withRel("daily_forecast"));
+		dto.add(WeatherLinks.DAILY_BY_CODE.withRel(baseUri, dto.getCode(), "daily_forecast"));
 		
-		dto.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(dto.getCode())).withRel("full_forecast"));		
+		dto.add(WeatherLinks.FULL_BY_CODE.withRel(baseUri, dto.getCode(), "full_forecast"));		
 		
 		return dto;
 	}
@@ -0,0 +1,80 @@
+package com.skyapi.weatherforecast.location;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import jakarta.transaction.Transactional;
+
+// bulk path of location imports: plain JDBC batches of inserts, bypassing the persistence context
+@Repository
+public class LocationBulkRepository {
+	
+	private static final String INSERT_SQL = """
+			INSERT INTO locations 
+			(code, city_name, region_name, country_name, country_code, enabled, trashed, time_zone, latitude, longitude)
+			VALUES (?, ?, ?, ?, ?, ?, false, ?, ?, ?)
+			""";
+	
+	private JdbcTemplate jdbcTemplate;
+
+	public LocationBulkRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	// trashed locations keep their code, so they count as existing
+	public Set<String> findExistingCodes(List<String> codes) {
+		if (codes.isEmpty()) {
+			return Collections.emptySet();
+		}
+		
+		String placeholders = String.join(", ", Collections.nCopies(codes.size(), "?"));
+		
+		return new HashSet<>(jdbcTemplate.queryForList("SELECT code FROM locations WHERE code IN (" + placeholders + ")", 
+				String.class, codes.toArray()));
+	}
+	
+	// one transaction per call: either every location is inserted or none. The locations whose code already
+	// exists are left out, and their codes returned as given. MySQL compares codes case-insensitively,
+	// so nyc_usa exists if NYC_USA does
+	@Transactional
+	public Set<String> insertAbsent(List<Location> locations, int batchSize) {
+		Set<String> storedCodes = new HashSet<>();
+		findExistingCodes(locations.stream().map(Location::getCode).toList())
+			.forEach(code -> storedCodes.add(code.toUpperCase(Locale.ROOT)));
+		
+		Set<String> existingCodes = new HashSet<>();
+		List<Location> newLocations = new ArrayList<>();
+		
+		for (Location location : locations) {
+			if (storedCodes.contains(location.getCode().toUpperCase(Locale.ROOT))) {
+				existingCodes.add(location.getCode());
+			} else {
+				newLocations.add(location);
+			}
+		}
+		
+		jdbcTemplate.batchUpdate(INSERT_SQL, newLocations, batchSize, (statement, location) -> {
+			statement.setString(1, location.getCode());
+			statement.setString(2, location.getCityName());
+			statement.setString(3, location.getRegionName());
+			statement.setString(4, location.getCountryName());
+			statement.setString(5, location.getCountryCode());
+			statement.setBoolean(6, location.isEnabled());
+			statement.setString(7, location.getTimeZone());
+			statement.setObject(8, location.getLatitude(), Types.DOUBLE);
+			statement.setObject(9, location.getLongitude(), Types.DOUBLE);
+		});
+		
+		return existingCodes;
+	}
+}
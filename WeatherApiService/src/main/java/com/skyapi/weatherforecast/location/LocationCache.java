@@ -0,0 +1,102 @@
+package com.skyapi.weatherforecast.location;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skyapi.weatherforecast.common.Location;
+
+// read-through cache in front of LocationRepository.findByCode.
+// Entries are detached copies of the scalar fields only (no weather data), shared between
+// requests, so they must be treated as read-only. Unknown codes are cached too, for a shorter time.
+@Component
+public class LocationCache {
+	
+	private LocationRepository locationRepo;
+	
+	private Cache<String, Optional<Location>> cache;
+
+	public LocationCache(LocationRepository locationRepo,
+			@Value("${location.cache.max-size:10000}") long maxSize,
+			@Value("${location.cache.ttl-minutes:60}") long ttlMinutes,
+			@Value("${location.cache.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+		super();
+		this.locationRepo = locationRepo;
+		
+		long ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+		long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+		
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfter(new Expiry<String, Optional<Location>>() {
+					
+					@Override
+					public long expireAfterCreate(String code, Optional<Location> location, long currentTime) {
+						return location.isPresent() ? ttlNanos : negativeTtlNanos;
+					}
+
+					@Override
+					public long expireAfterUpdate(String code, Optional<Location> location, long currentTime, long currentDuration) {
+						return expireAfterCreate(code, location, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(String code, Optional<Location> location, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.recordStats()
+				.build();
+	}
+	
+	public Optional<Location> get(String code) {
+		return cache.get(key(code), key -> load(code));
+	}
+	
+	public void invalidate(String code) {
+		cache.invalidate(key(code));
+	}
+	
+	public void clear() {
+		cache.invalidateAll();
+	}
+	
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+	
+	public long getSize() {
+		return cache.estimatedSize();
+	}
+	
+	// an added code may have a negative entry, so every change type evicts
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		invalidate(event.getCode());
+	}
+	
+	// MySQL compares codes with a case-insensitive collation, so nyc_usa and NYC_USA share one entry
+	private String key(String code) {
+		return code.toUpperCase(Locale.ROOT);
+	}
+	
+	private Optional<Location> load(String code) {
+		Location locationInDB = locationRepo.findByCode(code);
+		
+		if (locationInDB == null) {
+			return Optional.empty();
+		}
+		
+		return Optional.of(new Location(locationInDB.getCode(), locationInDB.getCityName(), locationInDB.getRegionName(), 
+				locationInDB.getCountryName(), locationInDB.getCountryCode(), locationInDB.isEnabled(), 
+				locationInDB.getTimeZone(), locationInDB.getLatitude(), locationInDB.getLongitude()));
+	}
+}
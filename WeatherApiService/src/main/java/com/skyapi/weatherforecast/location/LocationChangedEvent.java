@@ -0,0 +1,73 @@
+package com.skyapi.weatherforecast.location;
+
+import com.skyapi.weatherforecast.common.Location;
+
+// published by LocationService, listeners run once the surrounding transaction has committed
+public class LocationChangedEvent {
+	
+	public enum Type { ADDED, UPDATED, TRASHED }
+	
+	private Type type;
+	
+	private String code;
+	
+	private String cityName;
+	
+	private String regionName;
+	
+	private String countryName;
+	
+	private String countryCode;
+	
+	private Double latitude;
+	
+	private Double longitude;
+
+	public LocationChangedEvent(Type type, Location location) {
+		this.type = type;
+		this.code = location.getCode();
+		this.cityName = location.getCityName();
+		this.regionName = location.getRegionName();
+		this.countryName = location.getCountryName();
+		this.countryCode = location.getCountryCode();
+		this.latitude = location.getLatitude();
+		this.longitude = location.getLongitude();
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public String getCityName() {
+		return cityName;
+	}
+
+	public String getRegionName() {
+		return regionName;
+	}
+
+	public String getCountryName() {
+		return countryName;
+	}
+
+	public String getCountryCode() {
+		return countryCode;
+	}
+
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	@Override
+	public String toString() {
+		return "LocationChangedEvent [type=" + type + ", code=" + code + "]";
+	}
+}
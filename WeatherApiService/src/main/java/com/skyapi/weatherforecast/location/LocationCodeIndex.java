@@ -0,0 +1,103 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import jakarta.annotation.PostConstruct;
+
+// in-memory (country code, city name) -> location code lookup for the IP-based endpoints
+@Component
+public class LocationCodeIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationCodeIndex.class);
+	
+	private LocationRepository locationRepo;
+	
+	private Map<String, String> codesByKey = new ConcurrentHashMap<>();
+	
+	// reverse mapping, so an update or trash can drop the previous key of a location
+	private Map<String, String> keysByCode = new ConcurrentHashMap<>();
+
+	public LocationCodeIndex(LocationRepository locationRepo) {
+		super();
+		this.locationRepo = locationRepo;
+	}
+	
+	@PostConstruct
+	public void load() {
+		List<Location> locations = locationRepo.findUntrashedCodes();
+		
+		locations.forEach(this::put);
+		
+		LOGGER.info("Location code index loaded with " + locations.size() + " locations");
+	}
+	
+	public String getCode(String countryCode, String cityName) {
+		if (countryCode == null || cityName == null) {
+			return null;
+		}
+		
+		String code = codesByKey.get(key(countryCode, cityName));
+		
+		if (code != null) {
+			return code;
+		}
+		
+		// not indexed yet (e.g. inserted by another instance), fall back to the database once
+		Location locationInDB = locationRepo.findByCountryCodeAndCityName(countryCode, cityName);
+		
+		if (locationInDB == null) {
+			return null;
+		}
+		
+		put(locationInDB);
+		
+		return locationInDB.getCode();
+	}
+	
+	public int size() {
+		return codesByKey.size();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		switch (event.getType()) {
+			case ADDED, UPDATED -> put(event.getCode(), event.getCountryCode(), event.getCityName());
+			case TRASHED -> remove(event.getCode());
+		}
+	}
+	
+	private void put(Location location) {
+		put(location.getCode(), location.getCountryCode(), location.getCityName());
+	}
+	
+	private synchronized void put(String code, String countryCode, String cityName) {
+		remove(code);
+		
+		String key = key(countryCode, cityName);
+		
+		codesByKey.put(key, code);
+		keysByCode.put(code, key);
+	}
+	
+	private synchronized void remove(String code) {
+		String previousKey = keysByCode.remove(code);
+		
+		if (previousKey != null) {
+			codesByKey.remove(previousKey, code);
+		}
+	}
+	
+	// MySQL compares with a case-insensitive collation, so does the index
+	private String key(String countryCode, String cityName) {
+		return countryCode.toLowerCase(Locale.ROOT) + "|" + cityName.toLowerCase(Locale.ROOT);
+	}
+}
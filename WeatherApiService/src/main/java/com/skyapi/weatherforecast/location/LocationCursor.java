@@ -0,0 +1,112 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.common.Location;
+
+// opaque "after" token for keyset pagination: the sort option it was issued for
+// plus the sort key values of the last location on the page, as base64url JSON
+public class LocationCursor {
+	
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	
+	private String sort;
+	
+	private List<Object> keys;
+	
+	public LocationCursor() {
+		
+	}
+
+	public LocationCursor(String sort, List<Object> keys) {
+		this.sort = sort;
+		this.keys = keys;
+	}
+	
+	// the location code is unique, so it is appended as last key to make the order total
+	public static Sort withTieBreaker(Sort sort) {
+		return sort.getOrderFor("code") == null ? sort.and(Sort.by("code").ascending()) : sort;
+	}
+	
+	public static String encode(String sortOption, Sort sort, Location lastLocation) {
+		BeanWrapperImpl wrapper = new BeanWrapperImpl(lastLocation);
+		List<Object> keys = new ArrayList<>();
+		
+		sort.forEach(order -> keys.add(wrapper.getPropertyValue(order.getProperty())));
+		
+		try {
+			byte[] json = MAPPER.writeValueAsBytes(new LocationCursor(sortOption, keys));
+			
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+			
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Cannot encode cursor", ex);
+		}
+	}
+	
+	public static List<Object> decode(String token, String sortOption) throws BadRequestException {
+		LocationCursor cursor;
+		
+		try {
+			cursor = MAPPER.readValue(Base64.getUrlDecoder().decode(token), LocationCursor.class);
+		} catch (Exception ex) {
+			throw new BadRequestException("invalid cursor: " + token);
+		}
+		
+		if (!sortOption.equals(cursor.getSort()) || cursor.getKeys() == null) {
+			throw new BadRequestException("cursor does not match the sort option: " + sortOption);
+		}
+		
+		return cursor.getKeys();
+	}
+
+	// the keys come from the client: each must have the type of its sort field before it
+	// reaches the criteria query, e.g. a boolean for enabled
+	public static void checkKeys(String sortOption, Sort sort, List<Object> keys) throws BadRequestException {
+		List<Sort.Order> orders = sort.toList();
+		
+		if (keys.size() != orders.size()) {
+			throw new BadRequestException("cursor does not match the sort option: " + sortOption);
+		}
+		
+		for (int i = 0; i < orders.size(); i++) {
+			String property = orders.get(i).getProperty();
+			Class<?> propertyType = BeanUtils.getPropertyDescriptor(Location.class, property).getPropertyType();
+			Object key = keys.get(i);
+			
+			boolean valid = key == null 
+					? !propertyType.isPrimitive() 
+					: ClassUtils.resolvePrimitiveIfNecessary(propertyType).isInstance(key);
+			
+			if (!valid) {
+				throw new BadRequestException("invalid cursor value for " + property + ": " + key);
+			}
+		}
+	}
+
+	public String getSort() {
+		return sort;
+	}
+
+	public void setSort(String sort) {
+		this.sort = sort;
+	}
+
+	public List<Object> getKeys() {
+		return keys;
+	}
+
+	public void setKeys(List<Object> keys) {
+		this.keys = keys;
+	}
+}
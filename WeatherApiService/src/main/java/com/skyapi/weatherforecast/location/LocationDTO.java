@@ -1,15 +1,22 @@
 package com.skyapi.weatherforecast.location;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
+
 import org.hibernate.validator.constraints.Length;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.server.core.Relation;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 
-@JsonPropertyOrder({"code", "city_name", "region_name", "country_code", "country_name", "enabled"})
+@JsonPropertyOrder({"code", "city_name", "region_name", "country_code", "country_name", "enabled", "time_zone", "latitude", "longitude"})
 @Relation(collectionRelation = "locations")
 public class LocationDTO extends CollectionModel<LocationDTO> {
 	
@@ -34,6 +41,20 @@ public class LocationDTO extends CollectionModel<LocationDTO> {
 	private String countryCode;
 
 	private boolean enabled;
+	
+	@Length(max = 40, message = "Time zone must have at most 40 characters")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String timeZone;
+	
+	@DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+	@DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Double latitude;
+	
+	@DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+	@DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Double longitude;
 
 	public String getCode() {
 		return code;
@@ -82,4 +103,43 @@ public class LocationDTO extends CollectionModel<LocationDTO> {
 	public void setEnabled(boolean enabled) {
 		this.enabled = enabled;
 	}
+
+	public String getTimeZone() {
+		return timeZone;
+	}
+
+	public void setTimeZone(String timeZone) {
+		this.timeZone = timeZone;
+	}
+
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public void setLatitude(Double latitude) {
+		this.latitude = latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	public void setLongitude(Double longitude) {
+		this.longitude = longitude;
+	}
+	
+	@JsonIgnore
+	@AssertTrue(message = "Time zone must be a valid time zone ID, e.g. America/New_York")
+	public boolean isTimeZoneValid() {
+		if (timeZone == null) {
+			return true;
+		}
+		
+		try {
+			ZoneId.of(timeZone);
+			return true;
+		} catch (DateTimeException ex) {
+			return false;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.List;
+
+// row is the 1-based position of the record in the body, without the CSV header. code is null if unknown
+public record LocationImportError(long row, String code, List<String> errors) {
+}
@@ -0,0 +1,9 @@
+package com.skyapi.weatherforecast.location;
+
+// called on the importing thread. Rows that already exist are only known once their batch is inserted
+public interface LocationImportListener {
+	
+	void onRowRejected(LocationImportError error);
+	
+	void onBatchCompleted(LocationImportProgress progress);
+}
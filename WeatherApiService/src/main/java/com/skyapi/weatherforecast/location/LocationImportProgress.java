@@ -0,0 +1,4 @@
+package com.skyapi.weatherforecast.location;
+
+public record LocationImportProgress(long rows, long inserted, long rejected) {
+}
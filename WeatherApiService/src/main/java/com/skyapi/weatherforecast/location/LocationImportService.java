@@ -0,0 +1,212 @@
+package com.skyapi.weatherforecast.location;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.skyapi.weatherforecast.common.Location;
+
+import jakarta.validation.Validator;
+
+// reads the body one record at a time and inserts the valid rows in batches, so memory use
+// does not depend on the size of the import. Every batch commits on its own
+@Service
+public class LocationImportService {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationImportService.class);
+	
+	public enum Format { CSV, NDJSON }
+	
+	private LocationBulkRepository bulkRepo;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private Validator validator;
+	
+	private ObjectReader ndjsonReader;
+	
+	private ObjectReader csvReader;
+	
+	private int batchSize;
+
+	public LocationImportService(LocationBulkRepository bulkRepo, ApplicationEventPublisher eventPublisher, 
+			Validator validator, ObjectMapper objectMapper, 
+			@Value("${location.import.batch-size:500}") int batchSize) {
+		this.bulkRepo = bulkRepo;
+		this.eventPublisher = eventPublisher;
+		this.validator = validator;
+		this.batchSize = batchSize;
+		this.ndjsonReader = objectMapper.readerFor(LocationDTO.class);
+		
+		// the header names the columns, with the same names as the JSON fields. Empty cells are null
+		CsvMapper csvMapper = CsvMapper.builder()
+				.propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+				.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+				.build();
+		this.csvReader = csvMapper.readerFor(LocationDTO.class).with(CsvSchema.emptySchema().withHeader());
+	}
+	
+	public LocationImportProgress importLocations(Format format, InputStream input, LocationImportListener listener) 
+			throws IOException {
+		
+		ImportRun run = new ImportRun(listener);
+		
+		ObjectReader reader = format == Format.CSV ? csvReader : ndjsonReader;
+		
+		try (MappingIterator<LocationDTO> iterator = reader.readValues(input)) {
+			long row = 0;
+			
+			while (true) {
+				row++;
+				
+				try {
+					if (!iterator.hasNextValue()) {
+						break;
+					}
+					
+					run.add(row, iterator.nextValue());
+					
+				} catch (DatabindException ex) { // the iterator skips to the next record
+					run.reject(new LocationImportError(row, null, List.of(ex.getOriginalMessage())));
+					
+				} catch (StreamReadException ex) { // malformed, nothing after this point can be read
+					run.reject(new LocationImportError(row, null, List.of("Malformed input: " + ex.getOriginalMessage())));
+					break;
+				}
+			}
+		}
+		
+		run.flush();
+		
+		LocationImportProgress summary = run.getProgress();
+		
+		LOGGER.info("Locations imported: " + summary);
+		
+		return summary;
+	}
+	
+	private List<String> validate(LocationDTO dto) {
+		if (dto == null) {
+			return List.of("Location must not be null");
+		}
+		
+		return validator.validate(dto).stream()
+				.map(violation -> violation.getMessage())
+				.sorted()
+				.toList();
+	}
+	
+	private class ImportRun {
+		
+		private LocationImportListener listener;
+		
+		private List<Location> pending = new ArrayList<>();
+		
+		// keyed by the upper-cased code: MySQL compares codes with a case-insensitive collation,
+		// so nyc_usa and NYC_USA would collide in the batch insert
+		private Map<String, Long> pendingRowsByCode = new LinkedHashMap<>();
+		
+		private long rows;
+		
+		private long inserted;
+		
+		private long rejected;
+		
+		ImportRun(LocationImportListener listener) {
+			this.listener = listener;
+		}
+		
+		void add(long row, LocationDTO dto) {
+			rows = row;
+			
+			List<String> errors = validate(dto);
+			
+			if (!errors.isEmpty()) {
+				reject(new LocationImportError(row, dto == null ? null : dto.getCode(), errors));
+				return;
+			}
+			
+			Long firstRow = pendingRowsByCode.putIfAbsent(key(dto.getCode()), row);
+			
+			if (firstRow != null) {
+				reject(new LocationImportError(row, dto.getCode(), List.of("Location code is already used at row " + firstRow)));
+				return;
+			}
+			
+			pending.add(new Location(dto.getCode(), dto.getCityName(), dto.getRegionName(), dto.getCountryName(), 
+					dto.getCountryCode(), dto.isEnabled(), dto.getTimeZone(), dto.getLatitude(), dto.getLongitude()));
+			
+			if (pending.size() >= batchSize) {
+				flush();
+			}
+		}
+		
+		void reject(LocationImportError error) {
+			rows = Math.max(rows, error.row());
+			rejected++;
+			
+			listener.onRowRejected(error);
+		}
+		
+		void flush() {
+			if (pending.isEmpty()) {
+				return;
+			}
+			
+			try {
+				Set<String> existingCodes = bulkRepo.insertAbsent(pending, batchSize);
+				
+				for (Location location : pending) {
+					String code = location.getCode();
+					
+					if (existingCodes.contains(code)) {
+						reject(new LocationImportError(pendingRowsByCode.get(key(code)), code, List.of("Location code already exists")));
+					} else {
+						inserted++;
+						eventPublisher.publishEvent(new LocationChangedEvent(LocationChangedEvent.Type.ADDED, location));
+					}
+				}
+				
+			} catch (DataAccessException ex) { // the batch was rolled back as a whole
+				List<String> errors = List.of("Batch insert failed: " + ex.getMostSpecificCause().getMessage());
+				
+				pending.forEach(location -> reject(
+						new LocationImportError(pendingRowsByCode.get(key(location.getCode())), location.getCode(), errors)));
+			}
+			
+			pending = new ArrayList<>();
+			pendingRowsByCode.clear();
+			
+			listener.onBatchCompleted(getProgress());
+		}
+		
+		LocationImportProgress getProgress() {
+			return new LocationImportProgress(rows, inserted, rejected);
+		}
+		
+		private String key(String code) {
+			return code.toUpperCase(Locale.ROOT);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.skyapi.weatherforecast.location;
+
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationMapper {
+	
+	public static LocationDTO toDTO(Location entity) {
+		LocationDTO dto = new LocationDTO();
+		
+		dto.setCode(entity.getCode());
+		dto.setCityName(entity.getCityName());
+		dto.setRegionName(entity.getRegionName());
+		dto.setCountryName(entity.getCountryName());
+		dto.setCountryCode(entity.getCountryCode());
+		dto.setEnabled(entity.isEnabled());
+		dto.setTimeZone(entity.getTimeZone());
+		dto.setLatitude(entity.getLatitude());
+		dto.setLongitude(entity.getLongitude());
+		
+		return dto;
+	}
+}
@@ -0,0 +1,204 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import jakarta.annotation.PostConstruct;
+
+// in-memory k-nearest lookup over the untrashed locations that have coordinates. A location is a point on the
+// unit sphere, and the points are bucketed in a uniform grid of cubes. The straight-line distance between two
+// points orders them as the great-circle distance does, so there is no special case at the poles or across
+// the antimeridian
+@Component
+public class LocationNearbyIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationNearbyIndex.class);
+	
+	private static final double EARTH_RADIUS_KM = 6371.0088;
+	
+	// about 200 km on the surface
+	private static final double CELL_SIZE = 1.0 / 32;
+	
+	private static final int CELLS_PER_AXIS = (int) Math.ceil(2 / CELL_SIZE) + 1;
+	
+	// beyond this many shells of cells around the query (about 1600 km), a scan of every point is cheaper
+	private static final int MAX_SHELLS = 8;
+	
+	private LocationRepository locationRepo;
+	
+	private Map<Long, Set<Point>> pointsByCell = new ConcurrentHashMap<>();
+	
+	private Map<String, Point> pointsByCode = new ConcurrentHashMap<>();
+
+	public LocationNearbyIndex(LocationRepository locationRepo) {
+		super();
+		this.locationRepo = locationRepo;
+	}
+	
+	@PostConstruct
+	public void load() {
+		List<Location> locations = locationRepo.findUntrashedWithCoordinates();
+		
+		locations.forEach(location -> put(location.getCode(), location.getCityName(), location.getRegionName(), 
+				location.getCountryCode(), location.getCountryName(), location.getLatitude(), location.getLongitude()));
+		
+		LOGGER.info("Location nearby index loaded with " + locations.size() + " locations");
+	}
+	
+	// at most k locations, nearest first
+	public List<NearbyLocation> findNearest(double latitude, double longitude, int k) {
+		double[] query = toVector(latitude, longitude);
+		
+		// the farthest of the best k on top
+		PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::chord).reversed());
+		
+		if (!searchShells(query, k, best)) {
+			best.clear();
+			pointsByCode.values().forEach(point -> offer(best, point, query, k));
+		}
+		
+		List<Candidate> nearest = new ArrayList<>(best);
+		nearest.sort(Comparator.comparingDouble(Candidate::chord));
+		
+		return nearest.stream().map(Candidate::toNearbyLocation).toList();
+	}
+	
+	public int size() {
+		return pointsByCode.size();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		switch (event.getType()) {
+			case ADDED, UPDATED -> put(event.getCode(), event.getCityName(), event.getRegionName(), 
+					event.getCountryCode(), event.getCountryName(), event.getLatitude(), event.getLongitude());
+			case TRASHED -> remove(event.getCode());
+		}
+	}
+	
+	// false if the shells up to MAX_SHELLS cannot prove the best k
+	private boolean searchShells(double[] query, int k, PriorityQueue<Candidate> best) {
+		int[] center = cellOf(query);
+		
+		for (int shell = 0; shell <= MAX_SHELLS; shell++) {
+			// every point in this shell is at least (shell - 1) cells away along some axis
+			if (best.size() == k && (shell - 1) * CELL_SIZE >= best.peek().chord()) {
+				return true;
+			}
+			
+			for (int dx = -shell; dx <= shell; dx++) {
+				for (int dy = -shell; dy <= shell; dy++) {
+					boolean onFace = Math.abs(dx) == shell || Math.abs(dy) == shell;
+					int dzStep = onFace || shell == 0 ? 1 : 2 * shell;
+					
+					for (int dz = -shell; dz <= shell; dz += dzStep) {
+						Set<Point> points = pointsByCell.get(cellKey(center[0] + dx, center[1] + dy, center[2] + dz));
+						
+						if (points != null) {
+							points.forEach(point -> offer(best, point, query, k));
+						}
+					}
+				}
+			}
+		}
+		
+		return best.size() == k && MAX_SHELLS * CELL_SIZE >= best.peek().chord();
+	}
+	
+	private void offer(PriorityQueue<Candidate> best, Point point, double[] query, int k) {
+		double dx = point.x() - query[0];
+		double dy = point.y() - query[1];
+		double dz = point.z() - query[2];
+		double chord = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		
+		if (best.size() < k) {
+			best.add(new Candidate(point, chord));
+		} else if (chord < best.peek().chord()) {
+			best.poll();
+			best.add(new Candidate(point, chord));
+		}
+	}
+	
+	// a location without coordinates is not indexed, so an update that clears them removes it
+	private synchronized void put(String code, String cityName, String regionName, String countryCode, String countryName, 
+			Double latitude, Double longitude) {
+		remove(code);
+		
+		if (latitude == null || longitude == null) {
+			return;
+		}
+		
+		double[] vector = toVector(latitude, longitude);
+		int[] cell = cellOf(vector);
+		
+		Point point = new Point(code, cityName, regionName, countryCode, countryName, latitude, longitude, 
+				vector[0], vector[1], vector[2], cellKey(cell[0], cell[1], cell[2]));
+		
+		pointsByCell.computeIfAbsent(point.cell(), key -> ConcurrentHashMap.newKeySet()).add(point);
+		pointsByCode.put(code, point);
+	}
+	
+	private synchronized void remove(String code) {
+		Point previous = pointsByCode.remove(code);
+		
+		if (previous == null) {
+			return;
+		}
+		
+		Set<Point> points = pointsByCell.get(previous.cell());
+		points.remove(previous);
+		
+		if (points.isEmpty()) {
+			pointsByCell.remove(previous.cell());
+		}
+	}
+	
+	private static double[] toVector(double latitude, double longitude) {
+		double phi = Math.toRadians(latitude);
+		double lambda = Math.toRadians(longitude);
+		
+		return new double[] { Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi) };
+	}
+	
+	private static int[] cellOf(double[] vector) {
+		return new int[] { cellIndex(vector[0]), cellIndex(vector[1]), cellIndex(vector[2]) };
+	}
+	
+	private static int cellIndex(double coordinate) {
+		return (int) Math.floor((coordinate + 1) / CELL_SIZE);
+	}
+	
+	// -1 for a cell outside the cube, which is never populated
+	private static long cellKey(int x, int y, int z) {
+		if (x < 0 || y < 0 || z < 0 || x >= CELLS_PER_AXIS || y >= CELLS_PER_AXIS || z >= CELLS_PER_AXIS) {
+			return -1;
+		}
+		
+		return ((long) x * CELLS_PER_AXIS + y) * CELLS_PER_AXIS + z;
+	}
+	
+	private record Point(String code, String cityName, String regionName, String countryCode, String countryName, 
+			double latitude, double longitude, double x, double y, double z, long cell) {
+	}
+	
+	private record Candidate(Point point, double chord) {
+		
+		NearbyLocation toNearbyLocation() {
+			double distanceKm = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, chord / 2));
+			
+			return new NearbyLocation(point.code(), point.cityName(), point.regionName(), point.countryCode(), 
+					point.countryName(), point.latitude(), point.longitude(), Math.round(distanceKm * 10) / 10.0);
+		}
+	}
+}
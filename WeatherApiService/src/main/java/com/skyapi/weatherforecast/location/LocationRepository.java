@@ -1,5 +1,6 @@
 package com.skyapi.weatherforecast.location;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -29,4 +30,49 @@ public interface LocationRepository extends FilterableLocationRepository, CrudRe
 
 	@Query("SELECT l FROM Location l WHERE l.countryCode = ?1 AND l.cityName = ?2 AND l.trashed = false")
 	public Location findByCountryCodeAndCityName(String countryCode, String cityName);
-}
\ No newline at end of file
+	
+	// full weather read path: hourly and daily are both bags, which cannot be join fetched in one query,
+	// so the daily list is filled by a second query on the same persistence context
+	@Query("""
+			SELECT l FROM Location l 
+			LEFT JOIN FETCH l.realtimeWeather 
+			LEFT JOIN FETCH l.listHourlyWeather 
+			WHERE l.trashed = false AND l.code = ?1
+			""")
+	public Location findByCodeWithRealtimeAndHourlyWeather(String code);
+	
+	@Query("SELECT l FROM Location l LEFT JOIN FETCH l.listDailyWeather WHERE l.trashed = false AND l.code = ?1")
+	public Location findByCodeWithDailyWeather(String code);
+	
+	// batch variants of the two full weather queries above
+	@Query("""
+			SELECT DISTINCT l FROM Location l 
+			LEFT JOIN FETCH l.realtimeWeather 
+			LEFT JOIN FETCH l.listHourlyWeather 
+			WHERE l.trashed = false AND l.code IN ?1
+			""")
+	public List<Location> findByCodesWithRealtimeAndHourlyWeather(Collection<String> codes);
+	
+	@Query("SELECT DISTINCT l FROM Location l LEFT JOIN FETCH l.listDailyWeather WHERE l.trashed = false AND l.code IN ?1")
+	public List<Location> findByCodesWithDailyWeather(Collection<String> codes);
+	
+	@Query("""
+			SELECT NEW com.skyapi.weatherforecast.common.Location(l.code, l.cityName, l.regionName, l.countryName, l.countryCode)
+			FROM Location l WHERE l.trashed = false
+			""")
+	public List<Location> findUntrashedCodes();
+	
+	@Query("""
+			SELECT NEW com.skyapi.weatherforecast.common.Location(l.code, l.cityName, l.regionName, l.countryName, 
+			l.countryCode, l.enabled, l.timeZone, l.latitude, l.longitude)
+			FROM Location l WHERE l.trashed = false AND l.latitude IS NOT NULL AND l.longitude IS NOT NULL
+			""")
+	public List<Location> findUntrashedWithCoordinates();
+	
+	@Query("""
+			SELECT NEW com.skyapi.weatherforecast.common.Location(l.code, l.cityName, l.regionName, l.countryName, 
+			l.countryCode, l.enabled, l.timeZone, l.latitude, l.longitude)
+			FROM Location l WHERE l.trashed = false AND l.code IN ?1
+			""")
+	public List<Location> findUntrashedIn(Collection<String> codes);
+}
@@ -1,15 +1,21 @@
 package com.skyapi.weatherforecast.location;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.skyapi.weatherforecast.AbstractLocationService;
+import com.skyapi.weatherforecast.BadRequestException;
 import com.skyapi.weatherforecast.common.Location;
 
 import jakarta.transaction.Transactional;
@@ -18,14 +24,24 @@ import jakarta.transaction.Transactional;
 @Transactional
 public class LocationService extends AbstractLocationService {
 	
-	public LocationService(LocationRepository repo) {
+	private LocationCache locationCache;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	public LocationService(LocationRepository repo, LocationCache locationCache, ApplicationEventPublisher eventPublisher) {
 		super();
 		this.locationRepo = repo;
+		this.locationCache = locationCache;
+		this.eventPublisher = eventPublisher;
 	}
 	
 	public Location add(Location location) {
 		
-		return locationRepo.save(location);
+		Location savedLocation = locationRepo.save(location);
+		
+		eventPublisher.publishEvent(new LocationChangedEvent(LocationChangedEvent.Type.ADDED, savedLocation));
+		
+		return savedLocation;
 	}
 	
 	@Deprecated
@@ -53,6 +69,48 @@ public class LocationService extends AbstractLocationService {
 		return locationRepo.listWithFilter(pageable, filterFields);
 	}
 
+	public Slice<Location> listByPageWithoutCount(int pageNum, int pageSize, String sortOption, Map<String, Object> filterFields) {
+		
+		Sort sort = createMultipleSorts(sortOption);
+		
+		Pageable pageable = PageRequest.of(pageNum, pageSize, sort);
+		
+		return locationRepo.listWithFilterWithoutCount(pageable, filterFields);
+	}
+	
+	public Slice<Location> listByCursor(int pageSize, String sortOption, List<Object> afterKeys, Map<String, Object> filterFields) 
+			throws BadRequestException {
+		
+		Sort sort = LocationCursor.withTieBreaker(createMultipleSorts(sortOption));
+		
+		if (afterKeys != null) {
+			LocationCursor.checkKeys(sortOption, sort, afterKeys);
+		}
+		
+		Pageable pageable = PageRequest.of(0, pageSize, sort);
+		
+		return locationRepo.listWithFilterAfter(pageable, afterKeys, filterFields);
+	}
+
+	// every matching location in sort order, handed to the consumer while the rows are read
+	public long exportWithFilter(String sortOption, Map<String, Object> filterFields, Consumer<Location> consumer) {
+		
+		Sort sort = LocationCursor.withTieBreaker(createMultipleSorts(sortOption));
+		
+		long count = 0;
+		
+		try (Stream<Location> locations = locationRepo.streamWithFilter(sort, filterFields)) {
+			Iterator<Location> iterator = locations.iterator();
+			
+			while (iterator.hasNext()) {
+				consumer.accept(iterator.next());
+				count++;
+			}
+		}
+		
+		return count;
+	}
+
 	private Sort createMultipleSorts(String sortOption) {
 		
 		String[] sortFields = sortOption.split(",");
@@ -81,16 +139,10 @@ public class LocationService extends AbstractLocationService {
 		return fieldName.startsWith("-") ? Sort.by(actualFieldName).descending() : Sort.by(actualFieldName).ascending();		
 	}
 	
+	@Override
 	public Location get(String code) {
 		
-		Location location = locationRepo.findByCode(code);
-		
-		if(location == null) {
-			
-			throw new LocationNotFoundException(code);
-		}
-		
-		return location;
+		return locationCache.get(code).orElseThrow(() -> new LocationNotFoundException(code));
 	}
 	
 	public Location update(Location locationInRequest) {
@@ -106,7 +158,11 @@ public class LocationService extends AbstractLocationService {
 		
 		locationInDB.copyFieldsFrom(locationInRequest);
 		
-		return locationRepo.save(locationInDB);
+		Location savedLocation = locationRepo.save(locationInDB);
+		
+		eventPublisher.publishEvent(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, savedLocation));
+		
+		return savedLocation;
 	}
 	
 	public void delete(String code) {
@@ -119,6 +175,8 @@ public class LocationService extends AbstractLocationService {
 		}
 		
 		locationRepo.trashByCode(code);
+		
+		eventPublisher.publishEvent(new LocationChangedEvent(LocationChangedEvent.Type.TRASHED, location));
 	}
 
 }
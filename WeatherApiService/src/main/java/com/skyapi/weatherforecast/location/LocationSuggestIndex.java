@@ -0,0 +1,159 @@
+package com.skyapi.weatherforecast.location;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import jakarta.annotation.PostConstruct;
+
+// in-memory prefix lookup over the city, region and country names of the untrashed locations, for autocomplete.
+// Every word of a name starts a term, so "york" finds "New York City". Terms are kept in sorted maps, one per
+// field, and a prefix is a range scan from its ceiling key
+@Component
+public class LocationSuggestIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationSuggestIndex.class);
+	
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	
+	// separates the term from the location code in a key, and sorts before any character of a term
+	private static final char SEPARATOR = '\u0000';
+	
+	private LocationRepository locationRepo;
+	
+	// in ranking order: a city match comes before a region match, which comes before a country match
+	private List<NavigableMap<String, String>> codesByFieldTerm = List.of(
+			new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>());
+	
+	private Map<String, LocationSuggestion> suggestionsByCode = new ConcurrentHashMap<>();
+
+	public LocationSuggestIndex(LocationRepository locationRepo) {
+		super();
+		this.locationRepo = locationRepo;
+	}
+	
+	@PostConstruct
+	public void load() {
+		List<Location> locations = locationRepo.findUntrashedCodes();
+		
+		locations.forEach(location -> put(new LocationSuggestion(location.getCode(), location.getCityName(), 
+				location.getRegionName(), location.getCountryCode(), location.getCountryName())));
+		
+		LOGGER.info("Location suggest index loaded with " + locations.size() + " locations");
+	}
+	
+	// at most limit locations, each once, by the field it matched first and then by the matched term
+	public List<LocationSuggestion> suggest(String query, int limit) {
+		String prefix = normalize(query);
+		
+		if (prefix.isEmpty()) {
+			return List.of();
+		}
+		
+		Map<String, LocationSuggestion> suggestions = new LinkedHashMap<>();
+		
+		for (NavigableMap<String, String> codesByTerm : codesByFieldTerm) {
+			for (Map.Entry<String, String> entry : codesByTerm.tailMap(prefix).entrySet()) {
+				if (suggestions.size() >= limit || !entry.getKey().startsWith(prefix)) {
+					break;
+				}
+				
+				LocationSuggestion suggestion = suggestionsByCode.get(entry.getValue());
+				
+				if (suggestion != null) {
+					suggestions.putIfAbsent(suggestion.code(), suggestion);
+				}
+			}
+		}
+		
+		return new ArrayList<>(suggestions.values());
+	}
+	
+	public int size() {
+		return suggestionsByCode.size();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLocationChanged(LocationChangedEvent event) {
+		switch (event.getType()) {
+			case ADDED, UPDATED -> put(new LocationSuggestion(event.getCode(), event.getCityName(), 
+					event.getRegionName(), event.getCountryCode(), event.getCountryName()));
+			case TRASHED -> remove(event.getCode());
+		}
+	}
+	
+	private synchronized void put(LocationSuggestion suggestion) {
+		remove(suggestion.code());
+		
+		suggestionsByCode.put(suggestion.code(), suggestion);
+		
+		List<String> names = names(suggestion);
+		
+		for (int field = 0; field < names.size(); field++) {
+			for (String term : terms(names.get(field))) {
+				codesByFieldTerm.get(field).put(term + SEPARATOR + suggestion.code(), suggestion.code());
+			}
+		}
+	}
+	
+	private synchronized void remove(String code) {
+		LocationSuggestion previous = suggestionsByCode.remove(code);
+		
+		if (previous == null) {
+			return;
+		}
+		
+		List<String> names = names(previous);
+		
+		for (int field = 0; field < names.size(); field++) {
+			for (String term : terms(names.get(field))) {
+				codesByFieldTerm.get(field).remove(term + SEPARATOR + code);
+			}
+		}
+	}
+	
+	private List<String> names(LocationSuggestion suggestion) {
+		return Arrays.asList(suggestion.cityName(), suggestion.regionName(), suggestion.countryName());
+	}
+	
+	// the whole name and every tail of it that starts at a word
+	private List<String> terms(String name) {
+		List<String> terms = new ArrayList<>();
+		
+		if (name == null) {
+			return terms;
+		}
+		
+		String normalizedName = normalize(name);
+		
+		for (int i = 0; i < normalizedName.length(); i++) {
+			if (i == 0 || !Character.isLetterOrDigit(normalizedName.charAt(i - 1)) 
+					&& Character.isLetterOrDigit(normalizedName.charAt(i))) {
+				terms.add(normalizedName.substring(i));
+			}
+		}
+		
+		return terms;
+	}
+	
+	// MySQL compares with a case- and accent-insensitive collation, so does the index
+	private String normalize(String text) {
+		String decomposed = Normalizer.normalize(text.strip(), Normalizer.Form.NFD);
+		
+		return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,10 @@
+package com.skyapi.weatherforecast.location;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"code", "city_name", "region_name", "country_code", "country_name"})
+public record LocationSuggestion(String code, String cityName, 
+		@JsonInclude(JsonInclude.Include.NON_NULL) String regionName, 
+		String countryCode, String countryName) {
+}
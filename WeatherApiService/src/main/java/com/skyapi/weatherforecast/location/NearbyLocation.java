@@ -0,0 +1,11 @@
+package com.skyapi.weatherforecast.location;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+// distanceKm is the great-circle distance from the requested point
+@JsonPropertyOrder({"code", "city_name", "region_name", "country_code", "country_name", "latitude", "longitude", "distance_km"})
+public record NearbyLocation(String code, String cityName, 
+		@JsonInclude(JsonInclude.Include.NON_NULL) String regionName, 
+		String countryCode, String countryName, double latitude, double longitude, double distanceKm) {
+}
@@ -1,26 +1,39 @@
 package com.skyapi.weatherforecast.realtime;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 import org.modelmapper.ModelMapper;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.BatchWeatherDTO;
 import com.skyapi.weatherforecast.CommonUtility;
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherLinks;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
-import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
-import com.skyapi.weatherforecast.full.FullWeatherApiController;
-import com.skyapi.weatherforecast.hourly.HourlyWeatherApiController;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 @RestController
 @RequestMapping("/v1/realtime")
@@ -28,12 +41,19 @@ public class RealtimeWeatherApiController {
 	private GeolocationService locationService;
 	private RealtimeWeatherService realtimeWeatherService;
 	private ModelMapper modelMapper;
+	private Validator validator;
+	private RealtimeWeatherBroadcaster broadcaster;
+	
+	public static final int MAX_BULK_ITEMS = 50_000;
 	
-	public RealtimeWeatherApiController(GeolocationService locationService, RealtimeWeatherService realtimeWeatherService, ModelMapper modelMapper) {
+	public RealtimeWeatherApiController(GeolocationService locationService, RealtimeWeatherService realtimeWeatherService, 
+			ModelMapper modelMapper, Validator validator, RealtimeWeatherBroadcaster broadcaster) {
 		super();
 		this.locationService = locationService;
 		this.realtimeWeatherService = realtimeWeatherService;
 		this.modelMapper = modelMapper;
+		this.validator = validator;
+		this.broadcaster = broadcaster;
 	}
 
 	@GetMapping
@@ -43,18 +63,58 @@ public class RealtimeWeatherApiController {
 		Location locationFromIP = locationService.getLocation(ipAddress);
 		RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocation(locationFromIP);
 		
-		RealtimeWeatherDTO dto = modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+		if (CommonUtility.isNotModifiedSince(request, realtimeWeather.getLastUpdated())) {
+			return notModified(realtimeWeather);
+		}
+		
+		RealtimeWeatherDTO dto = entity2DTO(realtimeWeather);
 		
-		return ResponseEntity.ok(addLinksByIP(dto));
+		return ok(realtimeWeather, addLinksByIP(dto));
 	}
 	
 	@GetMapping("/{locationCode}")
-	public ResponseEntity<?> getRealtimeWeatherByLocationCode(@PathVariable("locationCode") String locationCode) {
+	public ResponseEntity<?> getRealtimeWeatherByLocationCode(@PathVariable("locationCode") String locationCode, 
+			HttpServletRequest request) {
 		RealtimeWeather realtimeWeather = realtimeWeatherService.getByLocationCode(locationCode);
 		
+		if (CommonUtility.isNotModifiedSince(request, realtimeWeather.getLastUpdated())) {
+			return notModified(realtimeWeather);
+		}
+		
 		RealtimeWeatherDTO dto = entity2DTO(realtimeWeather);
 		
-		return ResponseEntity.ok(addLinksByLocation(dto, locationCode));
+		return ok(realtimeWeather, addLinksByLocation(dto, locationCode));
+	}
+	
+	@GetMapping(params = "codes")
+	public ResponseEntity<?> getRealtimeWeatherByLocationCodes(@RequestParam("codes") String codes) throws BadRequestException {
+		List<String> locationCodes = LocationCodeBatch.parse(codes);
+		
+		Map<String, RealtimeWeather> realtimeWeatherByCode = realtimeWeatherService.getByLocationCodes(locationCodes);
+		
+		BatchWeatherDTO<RealtimeWeatherDTO> batchDTO = new BatchWeatherDTO<>();
+		
+		for (String locationCode : locationCodes) {
+			RealtimeWeather realtimeWeather = realtimeWeatherByCode.get(locationCode);
+			
+			if (realtimeWeather == null) {
+				batchDTO.addNotFound(locationCode);
+			} else {
+				batchDTO.addResult(locationCode, addLinksByLocation(entity2DTO(realtimeWeather), locationCode));
+			}
+		}
+		
+		batchDTO.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCodes(codes)).withSelfRel());
+		
+		return ResponseEntity.ok(batchDTO);
+	}
+	
+	// one connection for many locations: each change is sent as a realtime_weather event with the location code as id
+	@GetMapping(path = "/stream", params = "codes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamRealtimeWeather(@RequestParam("codes") String codes) throws BadRequestException {
+		List<String> locationCodes = LocationCodeBatch.parse(codes);
+		
+		return broadcaster.subscribe(locationCodes);
 	}
 	
 	@PutMapping("/{locationCode}")
@@ -70,8 +130,77 @@ public class RealtimeWeatherApiController {
 		return ResponseEntity.ok(addLinksByLocation(updatedDto, locationCode));
 	}
 	
+	// items are validated one by one, so that an invalid item does not reject the whole batch
+	@PutMapping
+	public ResponseEntity<?> bulkUpdateRealtimeWeather(@RequestBody List<RealtimeWeatherBulkDTO> listDTO) throws BadRequestException {
+		
+		if (listDTO.isEmpty()) {
+			throw new BadRequestException("Realtime weather data cannot be empty");
+		}
+		
+		if (listDTO.size() > MAX_BULK_ITEMS) {
+			throw new BadRequestException("At most " + MAX_BULK_ITEMS + " realtime weather items are allowed per request");
+		}
+		
+		List<List<String>> errorsByItem = new ArrayList<>();
+		List<RealtimeWeather> validItems = new ArrayList<>();
+		
+		for (RealtimeWeatherBulkDTO dto : listDTO) {
+			List<String> errors = validate(dto);
+			errorsByItem.add(errors);
+			
+			if (errors.isEmpty()) {
+				validItems.add(RealtimeWeatherMapper.toEntity(dto));
+			}
+		}
+		
+		// the service returns the stored codes, which the items may differ from in case only
+		Set<String> updatedCodes = new HashSet<>();
+		realtimeWeatherService.bulkUpdate(validItems).forEach(code -> updatedCodes.add(code.toUpperCase(Locale.ROOT)));
+		
+		RealtimeWeatherBulkResultDTO result = new RealtimeWeatherBulkResultDTO();
+		
+		for (int i = 0; i < listDTO.size(); i++) {
+			String locationCode = listDTO.get(i) != null ? listDTO.get(i).getLocationCode() : null;
+			List<String> errors = errorsByItem.get(i);
+			
+			if (!errors.isEmpty()) {
+				result.addItem(i, locationCode, RealtimeWeatherBulkResultDTO.STATUS_INVALID, errors);
+			} else if (updatedCodes.contains(locationCode.toUpperCase(Locale.ROOT))) {
+				result.addItem(i, locationCode, RealtimeWeatherBulkResultDTO.STATUS_UPDATED, null);
+			} else {
+				result.addItem(i, locationCode, RealtimeWeatherBulkResultDTO.STATUS_NOT_FOUND, null);
+			}
+		}
+		
+		return ResponseEntity.ok(result);
+	}
+	
+	private List<String> validate(RealtimeWeatherBulkDTO dto) {
+		if (dto == null) {
+			return List.of("Realtime weather item must not be null");
+		}
+		
+		return validator.validate(dto).stream()
+				.map(violation -> violation.getMessage())
+				.sorted()
+				.toList();
+	}
+	
+	private ResponseEntity<?> ok(RealtimeWeather realtimeWeather, RealtimeWeatherDTO dto) {
+		if (realtimeWeather.getLastUpdated() == null) {
+			return ResponseEntity.ok(dto);
+		}
+		
+		return ResponseEntity.ok().lastModified(realtimeWeather.getLastUpdated().getTime()).body(dto);
+	}
+	
+	private ResponseEntity<?> notModified(RealtimeWeather realtimeWeather) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).lastModified(realtimeWeather.getLastUpdated().getTime()).build();
+	}
+	
 	private RealtimeWeatherDTO entity2DTO(RealtimeWeather realtimeWeather) {
-		return modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+		return RealtimeWeatherMapper.toDTO(realtimeWeather);
 	}
 	
 	private RealtimeWeather dto2Entity(RealtimeWeatherDTO dto) {
@@ -80,26 +209,30 @@ public class RealtimeWeatherApiController {
 	
 	private RealtimeWeatherDTO addLinksByIP(RealtimeWeatherDTO dto) {
 		
-		dto.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByIPAddress(null)).withSelfRel());
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		dto.add(WeatherLinks.REALTIME_BY_IP.withSelfRel(baseUri));
 		
-		dto.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByIPAddress(null)).withRel("hourly_forecast"));
+		dto.add(WeatherLinks.HOURLY_BY_IP.withRel(baseUri, "hourly_forecast"));
 		
-		dto.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByIPAddress(null)).withRel("daily_forecast"));	
+		dto.add(WeatherLinks.DAILY_BY_IP.withRel(baseUri, "daily_forecast"));	
 		
-		dto.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByIPAddress(null)).withRel("full_forecast"));		
+		dto.add(WeatherLinks.FULL_BY_IP.withRel(baseUri, "full_forecast"));		
 		
 		return dto;
 	}
 	
 	private RealtimeWeatherDTO addLinksByLocation(RealtimeWeatherDTO dto, String locationCode) {
 		
-		dto.add(linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(locationCode)).withSelfRel());
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		dto.add(WeatherLinks.REALTIME_BY_CODE.withSelfRel(baseUri, locationCode));
 		
-		dto.add(linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(locationCode, null)).withRel("hourly_forecast"));
+		dto.add(WeatherLinks.HOURLY_BY_CODE.withRel(baseUri, locationCode, "hourly_forecast"));
 		
-		dto.add(linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(locationCode)).withRel("daily_forecast"));	
+		dto.add(WeatherLinks.DAILY_BY_CODE.withRel(baseUri, locationCode, "daily_forecast"));	
 		
-		dto.add(linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(locationCode)).withRel("full_forecast"));		
+		dto.add(WeatherLinks.FULL_BY_CODE.withRel(baseUri, locationCode, "full_forecast"));		
 		
 		return dto;
 	}	
@@ -0,0 +1,200 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+// fans realtime weather changes out to the stream subscribers of each location. A change is mapped once,
+// and sent by a small shared pool rather than a thread per subscriber. A send that blocks longer than the
+// send timeout drops its subscriber, so a stalled client cannot hold a pool thread for the others
+@Component
+public class RealtimeWeatherBroadcaster {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherBroadcaster.class);
+	
+	public static final String EVENT_NAME = "realtime_weather";
+	
+	private Map<String, Set<Subscriber>> subscribersByCode = new ConcurrentHashMap<>();
+	
+	private ExecutorService sender;
+	
+	private ScheduledExecutorService watchdog;
+	
+	private long timeoutMillis;
+	
+	private long sendTimeoutMillis;
+
+	@Autowired
+	public RealtimeWeatherBroadcaster(@Value("${realtime.stream.sender-threads:2}") int senderThreads,
+			@Value("${realtime.stream.timeout-ms:1800000}") long timeoutMillis,
+			@Value("${realtime.stream.send-timeout-ms:10000}") long sendTimeoutMillis) {
+		this(Executors.newFixedThreadPool(senderThreads), Executors.newSingleThreadScheduledExecutor(), 
+				timeoutMillis, sendTimeoutMillis);
+	}
+	
+	RealtimeWeatherBroadcaster(ExecutorService sender, ScheduledExecutorService watchdog, 
+			long timeoutMillis, long sendTimeoutMillis) {
+		this.sender = sender;
+		this.watchdog = watchdog;
+		this.timeoutMillis = timeoutMillis;
+		this.sendTimeoutMillis = sendTimeoutMillis;
+	}
+	
+	public SseEmitter subscribe(List<String> locationCodes) {
+		SseEmitter emitter = createEmitter(timeoutMillis);
+		Subscriber subscriber = new Subscriber(emitter, locationCodes);
+		
+		emitter.onCompletion(() -> unsubscribe(subscriber));
+		emitter.onTimeout(() -> unsubscribe(subscriber));
+		emitter.onError(ex -> unsubscribe(subscriber));
+		
+		locationCodes.forEach(code -> subscribersByCode.computeIfAbsent(key(code), key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+		
+		return emitter;
+	}
+	
+	public int getSubscriberCount(String locationCode) {
+		Set<Subscriber> subscribers = subscribersByCode.get(key(locationCode));
+		
+		return subscribers != null ? subscribers.size() : 0;
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRealtimeWeatherChanged(RealtimeWeatherChangedEvent event) {
+		Set<Subscriber> subscribers = subscribersByCode.get(key(event.getLocationCode()));
+		
+		if (subscribers == null || subscribers.isEmpty()) {
+			return;
+		}
+		
+		RealtimeWeatherDTO dto = RealtimeWeatherMapper.toDTO(event.getRealtimeWeather());
+		
+		for (Subscriber subscriber : subscribers) {
+			if (subscriber.offer(event.getLocationCode(), dto)) {
+				sender.execute(subscriber::drain);
+			}
+		}
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		sender.shutdownNow();
+		watchdog.shutdownNow();
+		
+		subscribersByCode.values().stream()
+			.flatMap(Set::stream)
+			.distinct()
+			.forEach(subscriber -> subscriber.emitter.complete());
+	}
+	
+	SseEmitter createEmitter(long timeoutMillis) {
+		return new SseEmitter(timeoutMillis);
+	}
+	
+	// events carry the stored code, while subscribers may use any case: MySQL compares codes
+	// with a case-insensitive collation, so nyc_usa and NYC_USA are the same location
+	private String key(String locationCode) {
+		return locationCode.toUpperCase(Locale.ROOT);
+	}
+	
+	private void unsubscribe(Subscriber subscriber) {
+		for (String code : subscriber.locationCodes) {
+			subscribersByCode.computeIfPresent(key(code), (key, subscribers) -> {
+				subscribers.remove(subscriber);
+				return subscribers.isEmpty() ? null : subscribers;
+			});
+		}
+	}
+	
+	// holds only the latest pending value per location, so a slow consumer skips the values
+	// that were overtaken while it was behind, and its buffer never exceeds its subscriptions
+	private class Subscriber {
+		
+		private SseEmitter emitter;
+		
+		private List<String> locationCodes;
+		
+		private Map<String, RealtimeWeatherDTO> pending = new LinkedHashMap<>();
+		
+		private boolean draining;
+		
+		private Subscriber(SseEmitter emitter, List<String> locationCodes) {
+			this.emitter = emitter;
+			this.locationCodes = locationCodes;
+		}
+		
+		// true if the caller has to schedule a drain
+		private synchronized boolean offer(String locationCode, RealtimeWeatherDTO dto) {
+			pending.put(locationCode, dto);
+			
+			if (draining) {
+				return false;
+			}
+			
+			draining = true;
+			return true;
+		}
+		
+		private void drain() {
+			while (true) {
+				Map.Entry<String, RealtimeWeatherDTO> next;
+				
+				synchronized (this) {
+					Iterator<Map.Entry<String, RealtimeWeatherDTO>> iterator = pending.entrySet().iterator();
+					
+					if (!iterator.hasNext()) {
+						draining = false;
+						return;
+					}
+					
+					next = iterator.next();
+					iterator.remove();
+				}
+				
+				ScheduledFuture<?> sendTimeout = watchdog.schedule(this::dropStalled, sendTimeoutMillis, TimeUnit.MILLISECONDS);
+				
+				try {
+					emitter.send(SseEmitter.event()
+							.id(next.getKey())
+							.name(EVENT_NAME)
+							.data(next.getValue(), MediaType.APPLICATION_JSON));
+				} catch (IOException | IllegalStateException ex) {
+					LOGGER.info("Realtime weather stream closed: " + ex.getMessage());
+					unsubscribe(this);
+					return;
+				} finally {
+					sendTimeout.cancel(false);
+				}
+			}
+		}
+		
+		// completing the emitter makes the container close the connection, which fails the blocked write
+		private void dropStalled() {
+			LOGGER.info("Realtime weather stream dropped: no send progress in " + sendTimeoutMillis + " ms");
+			unsubscribe(this);
+			emitter.completeWithError(new TimeoutException("Realtime weather send timed out"));
+		}
+	}
+}
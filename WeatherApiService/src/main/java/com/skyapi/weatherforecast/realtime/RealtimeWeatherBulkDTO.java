@@ -0,0 +1,21 @@
+package com.skyapi.weatherforecast.realtime;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import jakarta.validation.constraints.NotBlank;
+
+// one observation of a bulk update: the realtime weather plus the location it belongs to
+@JsonPropertyOrder({"location_code", "temperature", "humidity", "precipitation", "wind_speed", "status"})
+public class RealtimeWeatherBulkDTO extends RealtimeWeatherDTO {
+	
+	@NotBlank(message = "Location code must not be empty")
+	private String locationCode;
+
+	public String getLocationCode() {
+		return locationCode;
+	}
+
+	public void setLocationCode(String locationCode) {
+		this.locationCode = locationCode;
+	}
+}
@@ -0,0 +1,48 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+// bulk path of realtime updates: plain JDBC batches of upserts, bypassing the persistence context
+@Repository
+public class RealtimeWeatherBulkRepository {
+	
+	public static final int BATCH_SIZE = 1000;
+	
+	// an older observation never overwrites a newer one. MySQL assigns in order, so last_updated goes last
+	private static final String UPSERT_SQL = """
+			INSERT INTO realtime_weather 
+			(location_code, temperature, humidity, precipitation, wind_speed, status, last_updated)
+			VALUES (?, ?, ?, ?, ?, ?, ?)
+			ON DUPLICATE KEY UPDATE 
+			temperature = IF(VALUES(last_updated) >= last_updated, VALUES(temperature), temperature),
+			humidity = IF(VALUES(last_updated) >= last_updated, VALUES(humidity), humidity),
+			precipitation = IF(VALUES(last_updated) >= last_updated, VALUES(precipitation), precipitation),
+			wind_speed = IF(VALUES(last_updated) >= last_updated, VALUES(wind_speed), wind_speed),
+			status = IF(VALUES(last_updated) >= last_updated, VALUES(status), status),
+			last_updated = GREATEST(VALUES(last_updated), last_updated)
+			""";
+	
+	private JdbcTemplate jdbcTemplate;
+
+	public RealtimeWeatherBulkRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	public void upsert(List<RealtimeWeather> listRealtimeWeather) {
+		jdbcTemplate.batchUpdate(UPSERT_SQL, listRealtimeWeather, BATCH_SIZE, (statement, realtimeWeather) -> {
+			statement.setString(1, realtimeWeather.getLocationCode());
+			statement.setInt(2, realtimeWeather.getTemperature());
+			statement.setInt(3, realtimeWeather.getHumidity());
+			statement.setInt(4, realtimeWeather.getPrecipitation());
+			statement.setInt(5, realtimeWeather.getWindSpeed());
+			statement.setString(6, realtimeWeather.getStatus());
+			statement.setTimestamp(7, new Timestamp(realtimeWeather.getLastUpdated().getTime()));
+		});
+	}
+}
@@ -0,0 +1,48 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"updated", "rejected", "items"})
+public class RealtimeWeatherBulkResultDTO {
+	
+	public static final String STATUS_UPDATED = "updated";
+	public static final String STATUS_INVALID = "invalid";
+	public static final String STATUS_NOT_FOUND = "not_found";
+	
+	private int updated;
+	
+	private int rejected;
+	
+	private List<ItemStatus> items = new ArrayList<>();
+	
+	public int getUpdated() {
+		return updated;
+	}
+
+	public int getRejected() {
+		return rejected;
+	}
+
+	public List<ItemStatus> getItems() {
+		return items;
+	}
+	
+	public void addItem(int index, String locationCode, String status, List<String> errors) {
+		items.add(new ItemStatus(index, locationCode, status, errors));
+		
+		if (STATUS_UPDATED.equals(status)) {
+			updated++;
+		} else {
+			rejected++;
+		}
+	}
+
+	// index is the position of the item in the request
+	@JsonPropertyOrder({"index", "location_code", "status", "errors"})
+	public record ItemStatus(int index, String locationCode, String status, 
+			@JsonInclude(JsonInclude.Include.NON_EMPTY) List<String> errors) { }
+}
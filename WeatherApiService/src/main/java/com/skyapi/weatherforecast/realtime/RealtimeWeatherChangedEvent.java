@@ -0,0 +1,26 @@
+package com.skyapi.weatherforecast.realtime;
+
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+// published with the new realtime weather of a location, for the subscribers of its stream
+public class RealtimeWeatherChangedEvent {
+	
+	private RealtimeWeather realtimeWeather;
+
+	public RealtimeWeatherChangedEvent(RealtimeWeather realtimeWeather) {
+		this.realtimeWeather = realtimeWeather;
+	}
+
+	public String getLocationCode() {
+		return realtimeWeather.getLocationCode();
+	}
+
+	public RealtimeWeather getRealtimeWeather() {
+		return realtimeWeather;
+	}
+
+	@Override
+	public String toString() {
+		return "RealtimeWeatherChangedEvent [locationCode=" + getLocationCode() + "]";
+	}
+}
@@ -0,0 +1,37 @@
+package com.skyapi.weatherforecast.realtime;
+
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+public class RealtimeWeatherMapper {
+	
+	public static RealtimeWeatherDTO toDTO(RealtimeWeather entity) {
+		RealtimeWeatherDTO dto = new RealtimeWeatherDTO();
+		
+		if (entity.getLocation() != null) {
+			dto.setLocation(entity.getLocation().toString());
+		}
+		
+		dto.setTemperature(entity.getTemperature());
+		dto.setHumidity(entity.getHumidity());
+		dto.setPrecipitation(entity.getPrecipitation());
+		dto.setWindSpeed(entity.getWindSpeed());
+		dto.setStatus(entity.getStatus());
+		dto.setLastUpdated(entity.getLastUpdated());
+		
+		return dto;
+	}
+	
+	// bulk updates skip ModelMapper, which dominates the cost per item
+	public static RealtimeWeather toEntity(RealtimeWeatherBulkDTO dto) {
+		RealtimeWeather entity = new RealtimeWeather();
+		
+		entity.setLocationCode(dto.getLocationCode());
+		entity.setTemperature(dto.getTemperature());
+		entity.setHumidity(dto.getHumidity());
+		entity.setPrecipitation(dto.getPrecipitation());
+		entity.setWindSpeed(dto.getWindSpeed());
+		entity.setStatus(dto.getStatus());
+		
+		return entity;
+	}
+}
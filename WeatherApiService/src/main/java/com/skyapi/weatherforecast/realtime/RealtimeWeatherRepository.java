@@ -1,5 +1,8 @@
 package com.skyapi.weatherforecast.realtime;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
@@ -13,4 +16,7 @@ public interface RealtimeWeatherRepository extends CrudRepository<RealtimeWeathe
 	
 	@Query("SELECT r FROM RealtimeWeather r WHERE r.id = ?1 AND r.location.trashed = false")
 	public RealtimeWeather findByLocationCode(String locationCode);
+	
+	@Query("SELECT r FROM RealtimeWeather r JOIN FETCH r.location l WHERE r.id IN ?1 AND l.trashed = false")
+	public List<RealtimeWeather> findByLocationCodes(Collection<String> locationCodes);
 }
@@ -1,31 +1,71 @@
 package com.skyapi.weatherforecast.realtime;
 
 import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.skyapi.weatherforecast.LocationCodeBatch;
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class RealtimeWeatherService {
 
 	private RealtimeWeatherRepository realtimeWeatherRepo;
 	private LocationRepository locationRepo;
+	private LocationCodeIndex locationCodeIndex;
+	private ApplicationEventPublisher eventPublisher;
+	private RealtimeWeatherBulkRepository realtimeWeatherBulkRepo;
+	private RealtimeWeatherWriteBuffer writeBuffer;
+	private LocationCache locationCache;
 
-	public RealtimeWeatherService(RealtimeWeatherRepository realtimeWeatherRepo, LocationRepository locationRepo) {
+	public RealtimeWeatherService(RealtimeWeatherRepository realtimeWeatherRepo, LocationRepository locationRepo, 
+			LocationCodeIndex locationCodeIndex, ApplicationEventPublisher eventPublisher, 
+			RealtimeWeatherBulkRepository realtimeWeatherBulkRepo, RealtimeWeatherWriteBuffer writeBuffer, 
+			LocationCache locationCache) {
 		super();
 		this.realtimeWeatherRepo = realtimeWeatherRepo;
 		this.locationRepo = locationRepo;
+		this.locationCodeIndex = locationCodeIndex;
+		this.eventPublisher = eventPublisher;
+		this.realtimeWeatherBulkRepo = realtimeWeatherBulkRepo;
+		this.writeBuffer = writeBuffer;
+		this.locationCache = locationCache;
 	}
 
 	public RealtimeWeather getByLocation(Location location) {
 		String countryCode = location.getCountryCode();
 		String cityName = location.getCityName();
 		
-		RealtimeWeather realtimeWeather = realtimeWeatherRepo.findByCountryCodeAndCity(countryCode, cityName);
+		String locationCode = locationCodeIndex.getCode(countryCode, cityName);
+		
+		if (locationCode == null) {
+			throw new LocationNotFoundException(countryCode, cityName);
+		}
+		
+		// in write-behind mode the latest observation may not be flushed yet
+		RealtimeWeather buffered = getBuffered(locationCode);
+		
+		if (buffered != null) {
+			return buffered;
+		}
+		
+		RealtimeWeather realtimeWeather = realtimeWeatherRepo.findByLocationCode(locationCode);
 		
 		if (realtimeWeather == null) {
 			throw new LocationNotFoundException(countryCode, cityName);
@@ -35,6 +75,12 @@ public class RealtimeWeatherService {
 	}
 	
 	public RealtimeWeather getByLocationCode(String locationCode) {
+		RealtimeWeather buffered = getBuffered(locationCode);
+		
+		if (buffered != null) {
+			return buffered;
+		}
+		
 		RealtimeWeather realtimeWeather = realtimeWeatherRepo.findByLocationCode(locationCode);
 		
 		if (realtimeWeather == null) {
@@ -44,7 +90,50 @@ public class RealtimeWeatherService {
 		return realtimeWeather;
 	}
 	
+	// locations without realtime weather are left out. Rows and write buffer slots carry the stored code,
+	// which a requested code may differ from in case only: results are returned under the requested one
+	public Map<String, RealtimeWeather> getByLocationCodes(List<String> locationCodes) {
+		Map<String, String> canonicalCodeByCode = new HashMap<>();
+		
+		for (String code : locationCodes) {
+			locationCache.get(code).ifPresent(location -> canonicalCodeByCode.put(code, location.getCode()));
+		}
+		
+		List<String> canonicalCodes = new ArrayList<>(new LinkedHashSet<>(canonicalCodeByCode.values()));
+		
+		Map<String, RealtimeWeather> realtimeWeatherByCanonicalCode = new HashMap<>();
+		
+		for (List<String> chunk : LocationCodeBatch.chunks(canonicalCodes)) {
+			realtimeWeatherRepo.findByLocationCodes(chunk)
+				.forEach(realtimeWeather -> realtimeWeatherByCanonicalCode.put(realtimeWeather.getLocationCode(), realtimeWeather));
+		}
+		
+		for (String code : canonicalCodes) {
+			RealtimeWeather buffered = writeBuffer.get(code);
+			
+			if (buffered != null) {
+				realtimeWeatherByCanonicalCode.put(code, buffered);
+			}
+		}
+		
+		Map<String, RealtimeWeather> realtimeWeatherByCode = new HashMap<>();
+		
+		canonicalCodeByCode.forEach((code, canonicalCode) -> {
+			RealtimeWeather realtimeWeather = realtimeWeatherByCanonicalCode.get(canonicalCode);
+			
+			if (realtimeWeather != null) {
+				realtimeWeatherByCode.put(code, realtimeWeather);
+			}
+		});
+		
+		return realtimeWeatherByCode;
+	}
+	
 	public RealtimeWeather update(String locationCode, RealtimeWeather realtimeWeather) {
+		if (writeBuffer.isEnabled()) {
+			return updateWriteBehind(locationCode, realtimeWeather);
+		}
+		
 		Location location = locationRepo.findByCode(locationCode);
 		
 		if (location == null) {
@@ -54,13 +143,96 @@ public class RealtimeWeatherService {
 		realtimeWeather.setLocation(location);
 		realtimeWeather.setLastUpdated(new Date());
 		
+		RealtimeWeather updatedRealtimeWeather;
+		
 		if (location.getRealtimeWeather() == null) {
 			location.setRealtimeWeather(realtimeWeather);
 			Location updatedLocation = locationRepo.save(location);
 			
-			return updatedLocation.getRealtimeWeather();
+			updatedRealtimeWeather = updatedLocation.getRealtimeWeather();
+		} else {
+			updatedRealtimeWeather = realtimeWeatherRepo.save(realtimeWeather);
+		}
+		
+		eventPublisher.publishEvent(new WeatherDataUpdatedEvent(locationCode));
+		eventPublisher.publishEvent(new RealtimeWeatherChangedEvent(updatedRealtimeWeather));
+		
+		return updatedRealtimeWeather;
+	}
+	
+	// one transaction of batched upserts; returns the codes of the locations that were updated,
+	// items of unknown or trashed locations are skipped
+	@Transactional
+	public Set<String> bulkUpdate(List<RealtimeWeather> listRealtimeWeather) {
+		Set<String> codesInRequest = new LinkedHashSet<>();
+		listRealtimeWeather.forEach(realtimeWeather -> codesInRequest.add(realtimeWeather.getLocationCode()));
+		
+		// stored location by upper-cased code: MySQL compares codes case-insensitively, so an item sent
+		// as nyc_usa updates NYC_USA, as PUT /v1/realtime/nyc_usa does
+		Map<String, Location> existingLocationByKey = new HashMap<>();
+		
+		for (List<String> chunk : LocationCodeBatch.chunks(new ArrayList<>(codesInRequest), RealtimeWeatherBulkRepository.BATCH_SIZE)) {
+			locationRepo.findUntrashedIn(chunk).forEach(location -> existingLocationByKey.put(key(location.getCode()), location));
+		}
+		
+		Set<String> existingCodes = new LinkedHashSet<>();
+		existingLocationByKey.values().forEach(location -> existingCodes.add(location.getCode()));
+		
+		Date lastUpdated = new Date();
+		
+		List<RealtimeWeather> listToSave = new ArrayList<>();
+		
+		for (RealtimeWeather realtimeWeather : listRealtimeWeather) {
+			Location existingLocation = existingLocationByKey.get(key(realtimeWeather.getLocationCode()));
+			
+			if (existingLocation != null) {
+				// sets the stored code too; the location goes out with RealtimeWeatherChangedEvent, 
+				// as it does on the single update path
+				realtimeWeather.setLocation(existingLocation);
+				
+				realtimeWeather.setLastUpdated(lastUpdated);
+				listToSave.add(realtimeWeather);
+			}
+		}
+		
+		realtimeWeatherBulkRepo.upsert(listToSave);
+		
+		existingCodes.forEach(code -> writeBuffer.discardOlderThan(code, lastUpdated));
+		
+		existingCodes.forEach(code -> eventPublisher.publishEvent(new WeatherDataUpdatedEvent(code)));
+		listToSave.forEach(realtimeWeather -> eventPublisher.publishEvent(new RealtimeWeatherChangedEvent(realtimeWeather)));
+		
+		return existingCodes;
+	}
+	
+	// the latest value is kept in the write buffer and persisted by its flusher
+	private RealtimeWeather updateWriteBehind(String locationCode, RealtimeWeather realtimeWeather) {
+		Location location = locationCache.get(locationCode)
+				.orElseThrow(() -> new LocationNotFoundException(locationCode));
+		
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setLastUpdated(new Date());
+		
+		writeBuffer.put(realtimeWeather);
+		
+		eventPublisher.publishEvent(new WeatherDataUpdatedEvent(location.getCode()));
+		eventPublisher.publishEvent(new RealtimeWeatherChangedEvent(realtimeWeather));
+		
+		return realtimeWeather;
+	}
+	
+	private String key(String locationCode) {
+		return locationCode.toUpperCase(Locale.ROOT);
+	}
+	
+	// slots are keyed by the stored code, which a requested code may differ from in case only
+	private RealtimeWeather getBuffered(String locationCode) {
+		if (!writeBuffer.isEnabled()) {
+			return null;
 		}
 		
-		return realtimeWeatherRepo.save(realtimeWeather);
+		return locationCache.get(locationCode)
+				.map(location -> writeBuffer.get(location.getCode()))
+				.orElse(null);
 	}
-}
\ No newline at end of file
+}
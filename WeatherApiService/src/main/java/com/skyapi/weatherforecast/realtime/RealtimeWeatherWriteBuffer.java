@@ -0,0 +1,101 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+import jakarta.annotation.PreDestroy;
+
+// write-behind mode of realtime updates: the latest observation of each location is kept in a slot
+// (last writer wins on lastUpdated), served to readers, and persisted in batches by the flusher
+@Component
+public class RealtimeWeatherWriteBuffer {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherWriteBuffer.class);
+	
+	private boolean enabled;
+	
+	private RealtimeWeatherBulkRepository realtimeWeatherBulkRepo;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private Map<String, RealtimeWeather> dirtySlots = new ConcurrentHashMap<>();
+
+	public RealtimeWeatherWriteBuffer(RealtimeWeatherBulkRepository realtimeWeatherBulkRepo, 
+			ApplicationEventPublisher eventPublisher, 
+			@Value("${realtime.write-behind.enabled:false}") boolean enabled) {
+		this.realtimeWeatherBulkRepo = realtimeWeatherBulkRepo;
+		this.eventPublisher = eventPublisher;
+		this.enabled = enabled;
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	public void put(RealtimeWeather realtimeWeather) {
+		dirtySlots.merge(realtimeWeather.getLocationCode(), realtimeWeather, 
+				(current, incoming) -> incoming.getLastUpdated().before(current.getLastUpdated()) ? current : incoming);
+	}
+	
+	public RealtimeWeather get(String locationCode) {
+		return dirtySlots.get(locationCode);
+	}
+	
+	// after a direct write, e.g. a bulk update, an older slot must not be served or flushed
+	public void discardOlderThan(String locationCode, Date lastUpdated) {
+		dirtySlots.computeIfPresent(locationCode, 
+				(code, current) -> current.getLastUpdated().after(lastUpdated) ? current : null);
+	}
+	
+	public int getDirtyCount() {
+		return dirtySlots.size();
+	}
+	
+	@Scheduled(fixedDelayString = "${realtime.write-behind.flush-interval-ms:1000}")
+	public void flush() {
+		if (dirtySlots.isEmpty()) {
+			return;
+		}
+		
+		List<RealtimeWeather> snapshot = new ArrayList<>(dirtySlots.values());
+		
+		try {
+			realtimeWeatherBulkRepo.upsert(snapshot);
+		} catch (DataAccessException ex) {
+			// the slots stay dirty and are retried on the next run
+			LOGGER.error("Failed to flush " + snapshot.size() + " realtime weather updates", ex);
+			return;
+		}
+		
+		for (RealtimeWeather flushed : snapshot) {
+			String locationCode = flushed.getLocationCode();
+			
+			// a slot replaced during the flush stays dirty (equals() only compares the location code)
+			if (dirtySlots.computeIfPresent(locationCode, (code, current) -> current == flushed ? null : current) == null) {
+				// full weather is read from the database, so its cached response is refreshed now
+				eventPublisher.publishEvent(new WeatherDataUpdatedEvent(locationCode));
+			}
+		}
+		
+		LOGGER.debug("Flushed " + snapshot.size() + " realtime weather updates");
+	}
+	
+	@PreDestroy
+	public void flushOnShutdown() {
+		flush();
+	}
+}
@@ -0,0 +1,159 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.full.FullWeatherDTO;
+import com.skyapi.weatherforecast.full.FullWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.location.LocationDTO;
+import com.skyapi.weatherforecast.location.LocationMapper;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+// the hand-written mappers must serialize exactly like the ModelMapper configuration they replace
+public class DTOMapperTests {
+	
+	private ModelMapper modelMapper;
+	
+	private ObjectMapper objectMapper;
+	
+	private Location location;
+	
+	@BeforeEach
+	public void setUp() {
+		WeatherApiServiceApplication application = new WeatherApiServiceApplication();
+		
+		modelMapper = application.getModelMapper();
+		objectMapper = application.objectMapper();
+		
+		location = new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true);
+		
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode("NYC_USA");
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setTemperature(12);
+		realtimeWeather.setHumidity(32);
+		realtimeWeather.setPrecipitation(88);
+		realtimeWeather.setWindSpeed(5);
+		realtimeWeather.setStatus("Cloudy");
+		realtimeWeather.setLastUpdated(new Date(1700000000000L));
+		
+		location.setRealtimeWeather(realtimeWeather);
+		
+		for (int hour = 0; hour < 24; hour++) {
+			location.getListHourlyWeather().add(new HourlyWeather().id(location, hour)
+					.temperature(10 + hour % 7).precipitation(hour * 3).status("Sunny"));
+		}
+		
+		for (int day = 1; day <= 7; day++) {
+			location.getListDailyWeather().add(new DailyWeather().location(location).dayOfMonth(day).month(11)
+					.minTemp(5 + day).maxTemp(15 + day).precipitation(day * 10).status("Rainy"));
+		}
+	}
+	
+	@Test
+	public void testRealtimeWeatherMapperMatchesModelMapper() throws Exception {
+		RealtimeWeather entity = location.getRealtimeWeather();
+		
+		assertSameJson(modelMapper.map(entity, RealtimeWeatherDTO.class), RealtimeWeatherMapper.toDTO(entity));
+		
+		RealtimeWeather withoutLocation = new RealtimeWeather();
+		withoutLocation.setTemperature(-5);
+		withoutLocation.setStatus("Snowy");
+		
+		assertSameJson(modelMapper.map(withoutLocation, RealtimeWeatherDTO.class), RealtimeWeatherMapper.toDTO(withoutLocation));
+	}
+	
+	@Test
+	public void testHourlyWeatherMapperMatchesModelMapper() throws Exception {
+		for (HourlyWeather entity : location.getListHourlyWeather()) {
+			assertSameJson(modelMapper.map(entity, HourlyWeatherDTO.class), HourlyWeatherMapper.toDTO(entity));
+		}
+	}
+	
+	@Test
+	public void testDailyWeatherMapperMatchesModelMapper() throws Exception {
+		for (DailyWeather entity : location.getListDailyWeather()) {
+			assertSameJson(modelMapper.map(entity, DailyWeatherDTO.class), DailyWeatherMapper.toDTO(entity));
+		}
+	}
+	
+	@Test
+	public void testLocationMapperMatchesModelMapper() throws Exception {
+		assertSameJson(modelMapper.map(location, LocationDTO.class), LocationMapper.toDTO(location));
+		
+		location.setTimeZone("America/New_York");
+		location.setLatitude(40.7128);
+		location.setLongitude(-74.006);
+		
+		assertSameJson(modelMapper.map(location, LocationDTO.class), LocationMapper.toDTO(location));
+		
+		location.setRegionName(null);
+		location.setEnabled(false);
+		
+		assertSameJson(modelMapper.map(location, LocationDTO.class), LocationMapper.toDTO(location));
+	}
+	
+	@Test
+	public void testFullWeatherMapperMatchesModelMapper() throws Exception {
+		assertSameJson(fullWeatherByModelMapper(location), fullWeatherByMapper(location));
+		
+		location.setRealtimeWeather(null);
+		
+		assertSameJson(fullWeatherByModelMapper(location), fullWeatherByMapper(location));
+	}
+	
+	@Test
+	@Tag(MicroBenchmark.TAG)
+	public void benchmarkFullWeatherMapping() throws Exception {
+		MicroBenchmark.run("ModelMapper full weather", 2_000, 20_000, 
+				i -> fullWeatherByModelMapper(location));
+		
+		MicroBenchmark.run("FullWeatherMapper", 2_000, 20_000, 
+				i -> fullWeatherByMapper(location));
+	}
+	
+	@Test
+	@Tag(MicroBenchmark.TAG)
+	public void benchmarkHourlyWeatherMapping() throws Exception {
+		HourlyWeather entity = location.getListHourlyWeather().get(0);
+		
+		MicroBenchmark.run("ModelMapper hourly weather", 20_000, 200_000, 
+				i -> modelMapper.map(entity, HourlyWeatherDTO.class));
+		
+		MicroBenchmark.run("HourlyWeatherMapper", 20_000, 200_000, 
+				i -> HourlyWeatherMapper.toDTO(entity));
+	}
+	
+	// same post-processing as FullWeatherApiController.entity2DTO
+	private FullWeatherDTO fullWeatherByModelMapper(Location entity) {
+		FullWeatherDTO dto = modelMapper.map(entity, FullWeatherDTO.class);
+		dto.getRealtimeWeather().setLocation(null);
+		return dto;
+	}
+	
+	private FullWeatherDTO fullWeatherByMapper(Location entity) {
+		FullWeatherDTO dto = FullWeatherMapper.toDTO(entity);
+		dto.getRealtimeWeather().setLocation(null);
+		return dto;
+	}
+	
+	private void assertSameJson(Object expected, Object actual) throws Exception {
+		assertThat(objectMapper.writeValueAsString(actual)).isEqualTo(objectMapper.writeValueAsString(expected));
+	}
+}
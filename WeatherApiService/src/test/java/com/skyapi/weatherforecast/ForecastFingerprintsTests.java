@@ -0,0 +1,84 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.ForecastFingerprints.Kind;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherService;
+import com.skyapi.weatherforecast.location.LocationChangedEvent;
+
+public class ForecastFingerprintsTests {
+	
+	private Location location = new Location("NYC_USA", "New York City", "New York", "United States of America", "US");
+	
+	private ForecastFingerprints fingerprints = new ForecastFingerprints(100, 60, true);
+
+	@Test
+	public void testFingerprintIgnoresRowOrder() {
+		String fingerprint = HourlyWeatherService.fingerprint(List.of(forecast(10, 13, "Cloudy"), forecast(11, 15, "Sunny")));
+		String reordered = HourlyWeatherService.fingerprint(List.of(forecast(11, 15, "Sunny"), forecast(10, 13, "Cloudy")));
+		String changed = HourlyWeatherService.fingerprint(List.of(forecast(10, 13, "Cloudy"), forecast(11, 16, "Sunny")));
+		
+		assertThat(reordered).isEqualTo(fingerprint);
+		assertThat(changed).isNotEqualTo(fingerprint);
+	}
+	
+	@Test
+	public void testMatchesStoredFingerprint() {
+		long generation = fingerprints.beginUpdate(Kind.HOURLY, "NYC_USA");
+		fingerprints.put(Kind.HOURLY, "NYC_USA", generation, "abc");
+		
+		assertThat(fingerprints.matches(Kind.HOURLY, "NYC_USA", "abc")).isTrue();
+		assertThat(fingerprints.matches(Kind.HOURLY, "NYC_USA", "def")).isFalse();
+		assertThat(fingerprints.matches(Kind.DAILY, "NYC_USA", "abc")).isFalse();
+	}
+	
+	@Test
+	public void testOvertakenUpdateIsNotStored() {
+		long first = fingerprints.beginUpdate(Kind.DAILY, "NYC_USA");
+		long second = fingerprints.beginUpdate(Kind.DAILY, "NYC_USA");
+		
+		fingerprints.put(Kind.DAILY, "NYC_USA", second, "second");
+		fingerprints.put(Kind.DAILY, "NYC_USA", first, "first");
+		
+		assertThat(fingerprints.matches(Kind.DAILY, "NYC_USA", "second")).isTrue();
+		assertThat(fingerprints.matches(Kind.DAILY, "NYC_USA", "first")).isFalse();
+	}
+	
+	// PUT F to NYC_USA, G to nyc_usa, then F to NYC_USA again must not be answered unchanged
+	@Test
+	public void testMixedCaseCodesShareFingerprint() {
+		fingerprints.put(Kind.HOURLY, "NYC_USA", fingerprints.beginUpdate(Kind.HOURLY, "NYC_USA"), "F");
+		fingerprints.put(Kind.HOURLY, "nyc_usa", fingerprints.beginUpdate(Kind.HOURLY, "nyc_usa"), "G");
+		
+		assertThat(fingerprints.matches(Kind.HOURLY, "NYC_USA", "F")).isFalse();
+		assertThat(fingerprints.matches(Kind.HOURLY, "NYC_USA", "G")).isTrue();
+	}
+	
+	@Test
+	public void testDisabledMemoNeverMatches() {
+		ForecastFingerprints disabled = new ForecastFingerprints(100, 60, false);
+		disabled.put(Kind.HOURLY, "NYC_USA", disabled.beginUpdate(Kind.HOURLY, "NYC_USA"), "abc");
+		
+		assertThat(disabled.matches(Kind.HOURLY, "NYC_USA", "abc")).isFalse();
+	}
+	
+	@Test
+	public void testLocationChangeEvictsFingerprints() {
+		fingerprints.put(Kind.HOURLY, "NYC_USA", fingerprints.beginUpdate(Kind.HOURLY, "NYC_USA"), "abc");
+		
+		fingerprints.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.TRASHED, location));
+		
+		assertThat(fingerprints.matches(Kind.HOURLY, "NYC_USA", "abc")).isFalse();
+	}
+	
+	private HourlyWeather forecast(int hourOfDay, int temperature, String status) {
+		return new HourlyWeather().location(location).hourOfDay(hourOfDay).temperature(temperature)
+				.precipitation(60).status(status);
+	}
+}
@@ -0,0 +1,72 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+
+public class ForecastMergerTests {
+	
+	private Location location = new Location("NYC_USA", "New York City", "New York", "United States of America", "US");
+
+	@Test
+	public void testMergeCountsEachKindOfChange() {
+		List<HourlyWeather> stored = new ArrayList<>(List.of(
+				forecast(10, 13, "Cloudy"), 
+				forecast(11, 15, "Sunny"), 
+				forecast(12, 16, "Sunny")));
+		
+		HourlyWeather storedHour11 = stored.get(1);
+		
+		List<HourlyWeather> incoming = List.of(
+				forecast(10, 13, "Cloudy"), 
+				forecast(11, 17, "Sunny"), 
+				forecast(13, 18, "Clear"));
+		
+		ForecastMergeResult<HourlyWeather> result = ForecastMerger.merge(stored, incoming, 
+				HourlyWeather::getId, HourlyWeather::hasSameDataAs, HourlyWeather::copyDataFrom);
+		
+		assertThat(result.getUnchangedCount()).isEqualTo(1);
+		assertThat(result.getUpdatedCount()).isEqualTo(1);
+		assertThat(result.getInsertedCount()).isEqualTo(1);
+		assertThat(result.getDeletedCount()).isEqualTo(1);
+		
+		// updates are applied to the stored row, so only it becomes dirty
+		assertThat(result.getUpdated().get(0)).isSameAs(storedHour11);
+		assertThat(storedHour11.getTemperature()).isEqualTo(17);
+		
+		assertThat(result.getDeleted().get(0).getId().getHourOfDay()).isEqualTo(12);
+		assertThat(result.getInserted().get(0).getId().getHourOfDay()).isEqualTo(13);
+		
+		assertThat(result.getForecast()).extracting(hw -> hw.getId().getHourOfDay()).containsExactly(10, 11, 13);
+	}
+	
+	@Test
+	public void testFindDuplicateKey() {
+		List<HourlyWeather> incoming = List.of(forecast(10, 13, "Cloudy"), forecast(11, 15, "Sunny"), forecast(10, 14, "Sunny"));
+		
+		assertThat(ForecastMerger.<Integer, HourlyWeather>findDuplicateKey(incoming, hw -> hw.getId().getHourOfDay())).isEqualTo(10);
+		assertThat(ForecastMerger.<Integer, HourlyWeather>findDuplicateKey(incoming.subList(0, 2), hw -> hw.getId().getHourOfDay())).isNull();
+	}
+	
+	@Test
+	public void testMergeIdenticalForecastChangesNothing() {
+		List<HourlyWeather> stored = List.of(forecast(10, 13, "Cloudy"), forecast(11, 15, "Sunny"));
+		List<HourlyWeather> incoming = List.of(forecast(11, 15, "Sunny"), forecast(10, 13, "Cloudy"));
+		
+		ForecastMergeResult<HourlyWeather> result = ForecastMerger.merge(stored, incoming, 
+				HourlyWeather::getId, HourlyWeather::hasSameDataAs, HourlyWeather::copyDataFrom);
+		
+		assertThat(result.getUnchangedCount()).isEqualTo(2);
+		assertThat(result.getInsertedCount() + result.getUpdatedCount() + result.getDeletedCount()).isZero();
+	}
+	
+	private HourlyWeather forecast(int hour, int temperature, String status) {
+		return new HourlyWeather().location(location).hourOfDay(hour).temperature(temperature).precipitation(50).status(status);
+	}
+}
@@ -0,0 +1,173 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.ip2location.IP2Location;
+import com.ip2location.IPResult;
+import com.skyapi.weatherforecast.common.Location;
+
+public class IPRangeIndexTests {
+
+	private String DBPath = "ip2locdb/IP2LOCATION-LITE-DB3.BIN";
+	
+	@Test
+	public void testLookupInSyntheticDatabase() throws IOException {
+		IPRangeIndex index = IPRangeIndex.build(createDatabase());
+		
+		assertThat(index.getRangeCount()).isEqualTo(3);
+		assertThat(index.getLocationCount()).isEqualTo(3);
+		
+		Location delhi = index.lookup("103.48.198.141");
+		
+		assertThat(delhi.getCityName()).isEqualTo("Delhi");
+		assertThat(delhi.getRegionName()).isEqualTo("Delhi");
+		assertThat(delhi.getCountryCode()).isEqualTo("IN");
+		assertThat(delhi.getCountryName()).isEqualTo("India");
+		
+		Location newYork = index.lookup("200.1.1.1");
+		
+		assertThat(newYork.getCityName()).isEqualTo("New York City");
+		assertThat(newYork.getCountryCode()).isEqualTo("US");
+		
+		assertThat(index.lookup("0.0.0.0").getCityName()).isEqualTo("-");
+		assertThat(index.lookup("255.255.255.255")).isSameAs(newYork);
+		
+		// the same dictionary entry is returned for every range of a city
+		assertThat(index.lookup("100.0.0.0")).isSameAs(delhi);
+	}
+	
+	@Test
+	public void testLookupReturnsNullForNonIPv4Address() throws IOException {
+		IPRangeIndex index = IPRangeIndex.build(createDatabase());
+		
+		assertThat(index.lookup("abc")).isNull();
+		assertThat(index.lookup("1.2.3")).isNull();
+		assertThat(index.lookup("1.2.3.256")).isNull();
+		assertThat(index.lookup("01.2.3.4")).isNull();
+		assertThat(index.lookup("2001:db8::1")).isNull();
+	}
+	
+	@Test
+	public void testLookupMatchesLibrary() throws IOException {
+		IP2Location ipLocator = new IP2Location();
+		ipLocator.Open(DBPath);
+		
+		IPRangeIndex index = IPRangeIndex.build(ByteBuffer.wrap(Files.readAllBytes(Path.of(DBPath))));
+		
+		Random random = new Random(42);
+		
+		for (int i = 0; i < 100_000; i++) {
+			String ipAddress = randomIPv4(random);
+			
+			IPResult expected = ipLocator.IPQuery(ipAddress);
+			Location actual = index.lookup(ipAddress);
+			
+			assertThat(expected.getStatus()).isEqualTo("OK");
+			assertThat(actual.getCityName()).as(ipAddress).isEqualTo(expected.getCity());
+			assertThat(actual.getRegionName()).as(ipAddress).isEqualTo(expected.getRegion());
+			assertThat(actual.getCountryCode()).as(ipAddress).isEqualTo(expected.getCountryShort());
+			assertThat(actual.getCountryName()).as(ipAddress).isEqualTo(expected.getCountryLong());
+		}
+	}
+	
+	@Test
+	@Tag(MicroBenchmark.TAG)
+	public void benchmarkLookupAgainstLibrary() throws Exception {
+		IP2Location ipLocator = new IP2Location();
+		ipLocator.Open(DBPath, true);
+		
+		IPRangeIndex index = IPRangeIndex.build(ByteBuffer.wrap(Files.readAllBytes(Path.of(DBPath))));
+		
+		Random random = new Random(7);
+		String[] ipAddresses = new String[10_000];
+		
+		for (int i = 0; i < ipAddresses.length; i++) {
+			ipAddresses[i] = randomIPv4(random);
+		}
+		
+		MicroBenchmark.run("IP2Location.IPQuery", 200_000, 1_000_000, 
+				i -> ipLocator.IPQuery(ipAddresses[i % ipAddresses.length]));
+		
+		MicroBenchmark.run("IPRangeIndex.lookup", 200_000, 1_000_000, 
+				i -> index.lookup(ipAddresses[i % ipAddresses.length]));
+	}
+	
+	private String randomIPv4(Random random) {
+		return (1 + random.nextInt(223)) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+	}
+	
+	// DB3 layout: 64-byte header, IPv4 rows of [ip_from, country, region, city] pointers, then the strings
+	private ByteBuffer createDatabase() {
+		ByteBuffer db = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+		
+		int rowsStart = 64;
+		int rowCount = 3;
+		int stringsStart = rowsStart + (rowCount + 1) * 16;
+		
+		db.put(0, (byte) 3);
+		db.put(1, (byte) 4);
+		db.put(2, (byte) 24);
+		db.put(3, (byte) 10);
+		db.put(4, (byte) 1);
+		db.putInt(5, rowCount);
+		db.putInt(9, rowsStart + 1);
+		
+		db.position(stringsStart);
+		
+		int none = putString(db, "-");
+		int noneCountry = db.position();
+		putString(db, "-");
+		putString(db, "-");
+		
+		int india = db.position();
+		putString(db, "IN");
+		putString(db, "India");
+		int delhi = putString(db, "Delhi");
+		
+		int usa = db.position();
+		putString(db, "US");
+		putString(db, "United States of America");
+		int newYork = putString(db, "New York");
+		int newYorkCity = putString(db, "New York City");
+		
+		putRow(db, rowsStart, 0, 0L, noneCountry, none, none);
+		putRow(db, rowsStart, 1, ipNumber(100, 0, 0, 0), india, delhi, delhi);
+		putRow(db, rowsStart, 2, ipNumber(200, 0, 0, 0), usa, newYork, newYorkCity);
+		putRow(db, rowsStart, 3, 0xFFFFFFFFL, 0, 0, 0);
+		
+		return db.clear();
+	}
+	
+	private int putString(ByteBuffer db, String value) {
+		int position = db.position();
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		
+		db.put((byte) bytes.length).put(bytes);
+		
+		return position;
+	}
+	
+	private void putRow(ByteBuffer db, int rowsStart, int row, long ipFrom, int country, int region, int city) {
+		int offset = rowsStart + row * 16;
+		
+		db.putInt(offset, (int) ipFrom);
+		db.putInt(offset + 4, country);
+		db.putInt(offset + 8, region);
+		db.putInt(offset + 12, city);
+	}
+	
+	private long ipNumber(int a, int b, int c, int d) {
+		return ((long) a << 24) | (b << 16) | (c << 8) | d;
+	}
+}
@@ -0,0 +1,37 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class LocationCodeBatchTests {
+
+	@Test
+	public void testParseTrimsAndRemovesDuplicates() throws BadRequestException {
+		assertThat(LocationCodeBatch.parse(" NYC_USA,LACA_USA,,NYC_USA ")).containsExactly("NYC_USA", "LACA_USA");
+	}
+	
+	@Test
+	public void testParseRejectsEmptyAndTooManyCodes() {
+		assertThatThrownBy(() -> LocationCodeBatch.parse(" , ")).isInstanceOf(BadRequestException.class);
+		
+		String codes = String.join(",", IntStream.rangeClosed(1, LocationCodeBatch.MAX_CODES + 1).mapToObj(i -> "C" + i).toList());
+		
+		assertThatThrownBy(() -> LocationCodeBatch.parse(codes)).isInstanceOf(BadRequestException.class);
+	}
+	
+	@Test
+	public void testChunks() {
+		List<Integer> items = IntStream.range(0, LocationCodeBatch.CHUNK_SIZE * 2 + 1).boxed().toList();
+		
+		List<List<Integer>> chunks = LocationCodeBatch.chunks(items);
+		
+		assertThat(chunks).hasSize(3);
+		assertThat(chunks.get(0)).hasSize(LocationCodeBatch.CHUNK_SIZE);
+		assertThat(chunks.get(2)).containsExactly(LocationCodeBatch.CHUNK_SIZE * 2);
+	}
+}
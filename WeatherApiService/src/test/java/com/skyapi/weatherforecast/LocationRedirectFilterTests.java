@@ -0,0 +1,93 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+
+public class LocationRedirectFilterTests {
+	
+	private GeolocationService geolocationService;
+	
+	private LocationCodeIndex locationCodeIndex;
+	
+	@BeforeEach
+	public void setUp() {
+		geolocationService = mock(GeolocationService.class);
+		locationCodeIndex = mock(LocationCodeIndex.class);
+		
+		when(geolocationService.getLocation("108.30.178.78"))
+			.thenReturn(new Location("New York City", "New York", "United States of America", "US"));
+		
+		when(locationCodeIndex.getCode("US", "New York City")).thenReturn("NYC_USA");
+	}
+	
+	@Test
+	public void testRedirectToLocationCodeURL() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		
+		filter(LocationRedirectFilter.Mode.REDIRECT).doFilter(get("/v1/hourly", "108.30.178.78"), response, chain);
+		
+		assertThat(response.getStatus()).isEqualTo(302);
+		assertThat(response.getHeader("Location")).isEqualTo("/v1/hourly/NYC_USA");
+		assertThat(response.getHeader("Cache-Control")).isEqualTo("private, no-cache");
+		assertThat(chain.getRequest()).isNull();
+	}
+	
+	@Test
+	public void testForwardToLocationCodeURL() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		filter(LocationRedirectFilter.Mode.FORWARD).doFilter(get("/v1/full", "108.30.178.78"), response, new MockFilterChain());
+		
+		assertThat(response.getForwardedUrl()).isEqualTo("/v1/full/NYC_USA");
+		assertThat(response.getHeader("Content-Location")).isEqualTo("/v1/full/NYC_USA");
+	}
+	
+	@Test
+	public void testUnresolvedLocationFallsThrough() throws Exception {
+		when(geolocationService.getLocation("0.0.0.1")).thenThrow(new GeolocationException("Geolocation failed"));
+		
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		
+		filter(LocationRedirectFilter.Mode.REDIRECT).doFilter(get("/v1/realtime", "0.0.0.1"), response, chain);
+		
+		assertThat(chain.getRequest()).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader("Location")).isNull();
+	}
+	
+	@Test
+	public void testOtherRequestsAreNotRedirected() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		
+		filter(LocationRedirectFilter.Mode.REDIRECT).doFilter(get("/v1/realtime/NYC_USA", "108.30.178.78"), 
+				new MockHttpServletResponse(), chain);
+		
+		assertThat(chain.getRequest()).isNotNull();
+		verifyNoInteractions(geolocationService);
+	}
+	
+	private LocationRedirectFilter filter(LocationRedirectFilter.Mode mode) {
+		return new LocationRedirectFilter(geolocationService, locationCodeIndex, mode);
+	}
+	
+	private MockHttpServletRequest get(String path, String ipAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		request.setRemoteAddr(ipAddress);
+		
+		return request;
+	}
+}
@@ -0,0 +1,55 @@
+package com.skyapi.weatherforecast;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Poor man's benchmark harness: warms up, then logs average time and bytes allocated per
+// operation on the calling thread. Methods tagged with TAG run only with -Pbenchmark, e.g.
+// mvn test -Pbenchmark -Dtest='*Tests'
+public class MicroBenchmark {
+	
+	public static final String TAG = "benchmark";
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(MicroBenchmark.class);
+	
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = 
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	
+	public static Result run(String name, int warmupOperations, int operations, Operation operation) throws Exception {
+		
+		for (int i = 0; i < warmupOperations; i++) {
+			operation.run(i);
+		}
+		
+		long threadId = Thread.currentThread().threadId();
+		long bytesBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < operations; i++) {
+			operation.run(i);
+		}
+		
+		long elapsed = System.nanoTime() - start;
+		long allocated = THREAD_BEAN.getThreadAllocatedBytes(threadId) - bytesBefore;
+		
+		Result result = new Result(name, (double) elapsed / operations, (double) allocated / operations);
+		
+		LOGGER.info(result.toString());
+		
+		return result;
+	}
+	
+	public interface Operation {
+		void run(int iteration) throws Exception;
+	}
+	
+	public record Result(String name, double nanosPerOperation, double bytesPerOperation) {
+		
+		@Override
+		public String toString() {
+			return String.format("%-40s %12.1f ns/op %12.1f B/op", name, nanosPerOperation, bytesPerOperation);
+		}
+	}
+}
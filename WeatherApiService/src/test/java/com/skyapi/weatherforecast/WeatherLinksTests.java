@@ -0,0 +1,115 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
+import com.skyapi.weatherforecast.full.FullWeatherApiController;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherApiController;
+import com.skyapi.weatherforecast.location.LocationApiController;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherApiController;
+
+// the precomputed links must be exactly those built by WebMvcLinkBuilder
+public class WeatherLinksTests {
+	
+	private static final String CODE = "NYC_USA";
+	
+	// keeps the benchmarked links reachable
+	private Link[] links;
+	
+	@BeforeEach
+	public void setUp() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/skyapi/v1/realtime/" + CODE);
+		request.setScheme("https");
+		request.setServerName("api.skyapi.com");
+		request.setServerPort(8443);
+		request.setContextPath("/skyapi");
+		
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void testLinksByLocationMatchLinkBuilder() {
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		assertSameLink(WeatherLinks.LOCATION.withSelfRel(baseUri, CODE), 
+				linkTo(methodOn(LocationApiController.class).getLocation(CODE)).withSelfRel());
+		
+		assertSameLink(WeatherLinks.REALTIME_BY_CODE.withRel(baseUri, CODE, "realtime_weather"), 
+				linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(CODE, null)).withRel("realtime_weather"));
+		
+		assertSameLink(WeatherLinks.HOURLY_BY_CODE.withRel(baseUri, CODE, "hourly_forecast"), 
+				linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(CODE, null)).withRel("hourly_forecast"));
+		
+		assertSameLink(WeatherLinks.DAILY_BY_CODE.withRel(baseUri, CODE, "daily_forecast"), 
+				linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(CODE)).withRel("daily_forecast"));
+		
+		assertSameLink(WeatherLinks.FULL_BY_CODE.withSelfRel(baseUri, CODE), 
+				linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(CODE)).withSelfRel());
+		
+		assertThat(WeatherLinks.LOCATION.withSelfRel(baseUri, CODE).getHref())
+			.isEqualTo("https://api.skyapi.com:8443/skyapi/v1/locations/" + CODE);
+	}
+	
+	@Test
+	public void testLinksByIPMatchLinkBuilder() {
+		String baseUri = WeatherLinks.getBaseUri();
+		
+		assertSameLink(WeatherLinks.REALTIME_BY_IP.withSelfRel(baseUri), 
+				linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByIPAddress(null)).withSelfRel());
+		
+		assertSameLink(WeatherLinks.HOURLY_BY_IP.withRel(baseUri, "hourly_forecast"), 
+				linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByIPAddress(null)).withRel("hourly_forecast"));
+		
+		assertSameLink(WeatherLinks.DAILY_BY_IP.withRel(baseUri, "daily_forecast"), 
+				linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByIPAddress(null)).withRel("daily_forecast"));
+		
+		assertSameLink(WeatherLinks.FULL_BY_IP.withRel(baseUri, "full_forecast"), 
+				linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByIPAddress(null)).withRel("full_forecast"));
+	}
+	
+	// affordances are only rendered by HAL-FORMS, which the API does not produce
+	private void assertSameLink(Link actual, Link expected) {
+		assertThat(actual).usingRecursiveComparison().ignoringFields("affordances").isEqualTo(expected);
+	}
+	
+	// the links of one location response, as added by the realtime controller
+	@Test
+	@Tag(MicroBenchmark.TAG)
+	public void benchmarkLinksByLocation() throws Exception {
+		MicroBenchmark.run("WebMvcLinkBuilder links by location", 5_000, 50_000, 
+				i -> links = new Link[] {
+					linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeWeatherByLocationCode(CODE, null)).withSelfRel(),
+					linkTo(methodOn(HourlyWeatherApiController.class).listHourlyForecastByLocationCode(CODE, null)).withRel("hourly_forecast"),
+					linkTo(methodOn(DailyWeatherApiController.class).listDailyForecastByLocationCode(CODE)).withRel("daily_forecast"),
+					linkTo(methodOn(FullWeatherApiController.class).getFullWeatherByLocationCode(CODE)).withRel("full_forecast")
+				});
+		
+		MicroBenchmark.run("WeatherLinks links by location", 5_000, 50_000, 
+				i -> {
+					String baseUri = WeatherLinks.getBaseUri();
+					
+					links = new Link[] {
+						WeatherLinks.REALTIME_BY_CODE.withSelfRel(baseUri, CODE),
+						WeatherLinks.HOURLY_BY_CODE.withRel(baseUri, CODE, "hourly_forecast"),
+						WeatherLinks.DAILY_BY_CODE.withRel(baseUri, CODE, "daily_forecast"),
+						WeatherLinks.FULL_BY_CODE.withRel(baseUri, CODE, "full_forecast")
+					};
+				});
+	}
+}
@@ -0,0 +1,290 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationChangedEvent;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class WeatherResponseCacheFilterTests {
+	
+	private WeatherResponseCache cache;
+	
+	private WeatherResponseCacheFilter filter;
+	
+	private AtomicInteger handlerCalls;
+	
+	private int handlerStatus;
+	
+	private long lastModified;
+	
+	private long expires;
+	
+	private String weatherStatus;
+	
+	@BeforeEach
+	public void setUp() {
+		cache = new WeatherResponseCache(100, 10);
+		filter = new WeatherResponseCacheFilter(cache, true);
+		handlerCalls = new AtomicInteger();
+		handlerStatus = 200;
+		lastModified = -1;
+		expires = -1;
+		weatherStatus = "Cloudy";
+	}
+	
+	@Test
+	public void testRepeatedGetIsServedFromCache() throws Exception {
+		MockHttpServletResponse first = perform(get("/v1/realtime/NYC_USA"));
+		MockHttpServletResponse second = perform(get("/v1/realtime/NYC_USA"));
+		
+		assertThat(handlerCalls.get()).isEqualTo(1);
+		
+		assertThat(first.getHeader("X-Cache")).isEqualTo("MISS");
+		assertThat(second.getHeader("X-Cache")).isEqualTo("HIT");
+		
+		assertThat(second.getContentType()).isEqualTo("application/hal+json");
+		assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+	}
+	
+	@Test
+	public void testHourlyIsCachedPerCurrentHour() throws Exception {
+		MockHttpServletRequest hour10 = get("/v1/hourly/NYC_USA");
+		hour10.addHeader("X-Current-Hour", "10");
+		
+		MockHttpServletRequest hour11 = get("/v1/hourly/NYC_USA");
+		hour11.addHeader("X-Current-Hour", "11");
+		
+		perform(hour10);
+		perform(hour11);
+		
+		assertThat(handlerCalls.get()).isEqualTo(2);
+		assertThat(perform(hour10).getHeader("X-Cache")).isEqualTo("HIT");
+	}
+	
+	@Test
+	public void testExpiredResponseIsRenderedAgain() throws Exception {
+		expires = System.currentTimeMillis() - 1000;
+		
+		perform(get("/v1/hourly/NYC_USA"));
+		
+		assertThat(perform(get("/v1/hourly/NYC_USA")).getHeader("X-Cache")).isEqualTo("MISS");
+		
+		expires = System.currentTimeMillis() + 60_000;
+		
+		perform(get("/v1/hourly/NYC_USA"));
+		
+		assertThat(perform(get("/v1/hourly/NYC_USA")).getHeader("X-Cache")).isEqualTo("HIT");
+		assertThat(handlerCalls.get()).isEqualTo(3);
+	}
+	
+	@Test
+	public void testCachedResponseKeepsExpires() throws Exception {
+		expires = System.currentTimeMillis() + 60_000;
+		
+		MockHttpServletResponse first = perform(get("/v1/hourly/NYC_USA"));
+		MockHttpServletResponse second = perform(get("/v1/hourly/NYC_USA"));
+		
+		assertThat(second.getHeader("X-Cache")).isEqualTo("HIT");
+		assertThat(second.getHeader("Expires")).isNotNull().isEqualTo(first.getHeader("Expires"));
+		
+		MockHttpServletRequest conditional = get("/v1/hourly/NYC_USA");
+		conditional.addHeader("If-None-Match", first.getHeader("ETag"));
+		
+		MockHttpServletResponse notModified = perform(conditional);
+		
+		assertThat(notModified.getStatus()).isEqualTo(304);
+		assertThat(notModified.getHeader("Expires")).isEqualTo(first.getHeader("Expires"));
+	}
+	
+	@Test
+	public void testWeatherUpdateEvictsAllEndpointsOfLocation() throws Exception {
+		perform(get("/v1/daily/NYC_USA"));
+		perform(get("/v1/full/NYC_USA"));
+		perform(get("/v1/full/LACA_USA"));
+		
+		cache.onWeatherDataUpdated(new WeatherDataUpdatedEvent("NYC_USA"));
+		
+		assertThat(perform(get("/v1/daily/NYC_USA")).getHeader("X-Cache")).isEqualTo("MISS");
+		assertThat(perform(get("/v1/full/NYC_USA")).getHeader("X-Cache")).isEqualTo("MISS");
+		assertThat(perform(get("/v1/full/LACA_USA")).getHeader("X-Cache")).isEqualTo("HIT");
+	}
+	
+	@Test
+	public void testLocationChangeEvictsLocation() throws Exception {
+		perform(get("/v1/realtime/NYC_USA"));
+		
+		cache.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, 
+				new Location("NYC_USA", "New York City", "New York", "United States of America", "US")));
+		
+		assertThat(perform(get("/v1/realtime/NYC_USA")).getHeader("X-Cache")).isEqualTo("MISS");
+	}
+	
+	@Test
+	public void testCodeCaseSharesEntry() throws Exception {
+		perform(get("/v1/realtime/nyc_usa"));
+		
+		assertThat(perform(get("/v1/realtime/NYC_USA")).getHeader("X-Cache")).isEqualTo("HIT");
+		
+		cache.onWeatherDataUpdated(new WeatherDataUpdatedEvent("NYC_USA"));
+		
+		assertThat(perform(get("/v1/realtime/nyc_usa")).getHeader("X-Cache")).isEqualTo("MISS");
+		
+		cache.onWeatherDataUpdated(new WeatherDataUpdatedEvent("Nyc_Usa"));
+		
+		assertThat(perform(get("/v1/realtime/NYC_USA")).getHeader("X-Cache")).isEqualTo("MISS");
+	}
+	
+	@Test
+	public void testErrorResponseIsNotCached() throws Exception {
+		handlerStatus = 404;
+		
+		perform(get("/v1/realtime/ABCDE"));
+		perform(get("/v1/realtime/ABCDE"));
+		
+		assertThat(handlerCalls.get()).isEqualTo(2);
+	}
+	
+	@Test
+	public void testWriteDuringReadIsNotOverwrittenByStaleResponse() throws Exception {
+		// a write commits while the GET is still being rendered with the old data
+		filter.doFilter(get("/v1/realtime/NYC_USA"), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				cache.onWeatherDataUpdated(new WeatherDataUpdatedEvent("NYC_USA"));
+				response.getWriter().write("{}");
+			}
+		}));
+		
+		assertThat(perform(get("/v1/realtime/NYC_USA")).getHeader("X-Cache")).isEqualTo("MISS");
+	}
+	
+	@Test
+	public void testMatchingETagIsAnsweredWith304() throws Exception {
+		MockHttpServletResponse first = perform(get("/v1/daily/NYC_USA"));
+		String etag = first.getHeader("ETag");
+		
+		assertThat(etag).matches("\"[0-9a-f]{32}\"");
+		
+		MockHttpServletRequest conditional = get("/v1/daily/NYC_USA");
+		conditional.addHeader("If-None-Match", etag);
+		
+		MockHttpServletResponse second = perform(conditional);
+		
+		assertThat(second.getStatus()).isEqualTo(304);
+		assertThat(second.getContentAsByteArray()).isEmpty();
+		assertThat(second.getHeader("ETag")).isEqualTo(etag);
+		assertThat(handlerCalls.get()).isEqualTo(1);
+		
+		weatherStatus = "Sunny";
+		cache.onWeatherDataUpdated(new WeatherDataUpdatedEvent("NYC_USA"));
+		
+		MockHttpServletResponse third = perform(conditional);
+		
+		assertThat(third.getStatus()).isEqualTo(200);
+		assertThat(third.getHeader("ETag")).isNotEqualTo(etag);
+	}
+	
+	@Test
+	public void testCachedLastModifiedIsValidated() throws Exception {
+		lastModified = 1700000000000L;
+		
+		MockHttpServletResponse first = perform(get("/v1/realtime/NYC_USA"));
+		
+		MockHttpServletRequest conditional = get("/v1/realtime/NYC_USA");
+		conditional.addHeader("If-Modified-Since", first.getHeader("Last-Modified"));
+		
+		MockHttpServletResponse second = perform(conditional);
+		
+		assertThat(second.getStatus()).isEqualTo(304);
+		assertThat(second.getHeader("X-Cache")).isEqualTo("HIT");
+	}
+	
+	@Test
+	public void testResponseByIPAddressGetsETag() throws Exception {
+		String etag = perform(get("/v1/hourly")).getHeader("ETag");
+		
+		MockHttpServletRequest conditional = get("/v1/hourly");
+		conditional.addHeader("If-None-Match", etag);
+		
+		assertThat(perform(conditional).getStatus()).isEqualTo(304);
+		
+		// not cached: the location is only known after geolocation
+		assertThat(handlerCalls.get()).isEqualTo(2);
+	}
+	
+	@Test
+	public void testDisabledCacheStillAnswers304() throws Exception {
+		filter = new WeatherResponseCacheFilter(cache, false);
+		
+		MockHttpServletResponse first = perform(get("/v1/realtime/NYC_USA"));
+		
+		assertThat(first.getHeader("X-Cache")).isNull();
+		assertThat(first.getHeader("ETag")).isNotNull();
+		
+		MockHttpServletRequest conditional = get("/v1/realtime/NYC_USA");
+		conditional.addHeader("If-None-Match", first.getHeader("ETag"));
+		
+		assertThat(perform(conditional).getStatus()).isEqualTo(304);
+		assertThat(handlerCalls.get()).isEqualTo(2);
+		assertThat(cache.get("NYC_USA", "realtime")).isNull();
+	}
+	
+	@Test
+	public void testOtherRequestsAreNotCached() throws Exception {
+		MockHttpServletRequest put = new MockHttpServletRequest("PUT", "/v1/realtime/NYC_USA");
+		put.setServletPath("/v1/realtime/NYC_USA");
+		
+		perform(put);
+		perform(put);
+		perform(get("/v1/realtime"));
+		perform(get("/v1/realtime"));
+		
+		assertThat(handlerCalls.get()).isEqualTo(4);
+	}
+	
+	private MockHttpServletRequest get(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		
+		return request;
+	}
+	
+	private MockHttpServletResponse perform(MockHttpServletRequest request) throws ServletException, IOException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		
+		filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				handlerCalls.incrementAndGet();
+				response.setStatus(handlerStatus);
+				response.setContentType("application/hal+json");
+				
+				if (lastModified > 0) {
+					response.setDateHeader("Last-Modified", lastModified);
+				}
+				
+				if (expires > 0) {
+					response.setDateHeader("Expires", expires);
+				}
+				
+				response.getWriter().write("{\"location\":\"" + request.getServletPath() + "\",\"status\":\"" + weatherStatus + "\"}");
+			}
+		}));
+		
+		return response;
+	}
+}
@@ -0,0 +1,124 @@
+package com.skyapi.weatherforecast.admin;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.location.LocationCache;
+
+@WebMvcTest(AdminApiController.class)
+public class AdminApiControllerTests {
+
+	private static final String END_POINT_PATH = "/v1/admin";
+	
+	@Autowired 
+	MockMvc mockMvc;
+	
+	@MockBean 
+	GeolocationService geolocationService;
+	
+	@MockBean 
+	LocationCache locationCache;
+	
+	@Test
+	public void testGetGeolocationDatabaseShouldReturn200OK() throws Exception {
+		Mockito.when(geolocationService.getDatabaseSource()).thenReturn("/data/IP2LOCATION-LITE-DB3.BIN");
+		Mockito.when(geolocationService.getDatabaseVersion()).thenReturn("2024-10-01");
+		Mockito.when(geolocationService.getDatabaseLoadedAt()).thenReturn(new Date());
+		
+		mockMvc.perform(get(END_POINT_PATH + "/geolocation"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.source", is("/data/IP2LOCATION-LITE-DB3.BIN")))
+			.andExpect(jsonPath("$.version", is("2024-10-01")))
+			.andDo(print());
+	}
+	
+	@Test
+	public void testReloadGeolocationDatabaseShouldReturn200OK() throws Exception {
+		Mockito.when(geolocationService.getDatabaseVersion()).thenReturn("2024-11-01");
+		
+		mockMvc.perform(post(END_POINT_PATH + "/geolocation/reload"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.version", is("2024-11-01")))
+			.andDo(print());
+		
+		Mockito.verify(geolocationService).reload();
+	}
+	
+	@Test
+	public void testReloadGeolocationDatabaseShouldReturn500InternalServerError() throws Exception {
+		Mockito.doThrow(new IOException("Cannot read file")).when(geolocationService).reload();
+		
+		mockMvc.perform(post(END_POINT_PATH + "/geolocation/reload"))
+			.andExpect(status().isInternalServerError())
+			.andDo(print());
+	}
+	
+	@Test
+	public void testGetGeolocationCacheStatsShouldReturn200OK() throws Exception {
+		CacheStats stats = CacheStats.of(30, 10, 10, 0, 0, 2, 0);
+		
+		Mockito.when(geolocationService.getCacheStats()).thenReturn(stats);
+		Mockito.when(geolocationService.getCacheSize()).thenReturn(8L);
+		
+		mockMvc.perform(get(END_POINT_PATH + "/geolocation/cache"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.size", is(8)))
+			.andExpect(jsonPath("$.hit_count", is(30)))
+			.andExpect(jsonPath("$.miss_count", is(10)))
+			.andExpect(jsonPath("$.hit_rate", is(0.75)))
+			.andExpect(jsonPath("$.eviction_count", is(2)))
+			.andDo(print());
+	}
+	
+	@Test
+	public void testClearGeolocationCacheShouldReturn204NoContent() throws Exception {
+		
+		mockMvc.perform(delete(END_POINT_PATH + "/geolocation/cache"))
+			.andExpect(status().isNoContent())
+			.andDo(print());
+		
+		Mockito.verify(geolocationService).clearCache();
+	}
+	
+	@Test
+	public void testGetLocationCacheStatsShouldReturn200OK() throws Exception {
+		CacheStats stats = CacheStats.of(90, 10, 10, 0, 0, 0, 0);
+		
+		Mockito.when(locationCache.getStats()).thenReturn(stats);
+		Mockito.when(locationCache.getSize()).thenReturn(10L);
+		
+		mockMvc.perform(get(END_POINT_PATH + "/locations/cache"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.size", is(10)))
+			.andExpect(jsonPath("$.hit_count", is(90)))
+			.andExpect(jsonPath("$.hit_rate", is(0.9)))
+			.andDo(print());
+	}
+	
+	@Test
+	public void testClearLocationCacheShouldReturn204NoContent() throws Exception {
+		
+		mockMvc.perform(delete(END_POINT_PATH + "/locations/cache"))
+			.andExpect(status().isNoContent())
+			.andDo(print());
+		
+		Mockito.verify(locationCache).clear();
+	}
+}
@@ -7,12 +7,15 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -22,8 +25,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.ForecastMergeResult;
+import com.skyapi.weatherforecast.ForecastMerger;
 import com.skyapi.weatherforecast.GeolocationException;
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.LocationCodeBatch;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
@@ -195,6 +201,46 @@ public class DailyWeatherApiControllerTests {
 				.andDo(print());
 	}		
 	
+	@Test
+	public void testGetByCodesShouldReportNotFoundPerCode() throws Exception {
+		Location location = new Location();
+		location.setCode("NYC_USA");
+		location.setCityName("New York City");
+		location.setRegionName("New York");
+		location.setCountryCode("US");
+		location.setCountryName("United States of America");
+		
+		DailyWeather forecast = new DailyWeather()
+				.location(location)
+				.dayOfMonth(16)
+				.month(7)
+				.minTemp(23)
+				.maxTemp(32)
+				.precipitation(40)
+				.status("Cloudy");
+		
+		when(dailyWeatherService.getByLocationCodes(List.of("NYC_USA", "ABCDE")))
+			.thenReturn(Map.of("NYC_USA", List.of(forecast)));
+		
+		mockMvc.perform(get(END_POINT_PATH).param("codes", "NYC_USA, ABCDE,NYC_USA"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results.NYC_USA.location", is(location.toString())))
+				.andExpect(jsonPath("$.results.NYC_USA.daily_forecast[0].day_of_month", is(16)))
+				.andExpect(jsonPath("$.results.NYC_USA._links.self.href", is("http://localhost/v1/daily/NYC_USA")))
+				.andExpect(jsonPath("$.errors.ABCDE", is(new LocationNotFoundException("ABCDE").getMessage())))
+				.andExpect(jsonPath("$._links.self.href", containsString("/v1/daily?codes=")))
+				.andDo(print());
+	}
+	
+	@Test
+	public void testGetByCodesShouldReturn400BadRequestBecauseTooManyCodes() throws Exception {
+		String codes = String.join(",", IntStream.rangeClosed(1, LocationCodeBatch.MAX_CODES + 1).mapToObj(i -> "C" + i).toList());
+		
+		mockMvc.perform(get(END_POINT_PATH).param("codes", codes))
+				.andExpect(status().isBadRequest())
+				.andDo(print());
+	}
+	
 	@Test
 	public void testUpdateShouldReturn400BadRequestBecauseNoData() throws Exception {
 		String requestURI = END_POINT_PATH + "/NYC_USA";
@@ -209,6 +255,34 @@ public class DailyWeatherApiControllerTests {
 			.andDo(print());
 	}	
 	
+	@Test
+	public void testUpdateShouldReturn400BadRequestBecauseDuplicateDay() throws Exception {
+		String requestURI = END_POINT_PATH + "/NYC_USA";
+		
+		DailyWeatherDTO dto1 = new DailyWeatherDTO()
+									.dayOfMonth(16)
+									.month(7)
+									.minTemp(23)
+									.maxTemp(30)
+									.precipitation(20)
+									.status("Clear");
+		
+		DailyWeatherDTO dto2 = new DailyWeatherDTO()
+									.dayOfMonth(16)
+									.month(7)
+									.minTemp(25)
+									.maxTemp(32)
+									.precipitation(10)
+									.status("Sunny");
+		
+		String requestBody = objectMapper.writeValueAsString(List.of(dto1, dto2));
+		
+		mockMvc.perform(put(requestURI).contentType(REQUEST_CONTENT_TYPE).content(requestBody))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.errors[0]", is("Daily forecast data contains day 16/7 more than once")))
+			.andDo(print());
+	}
+	
 	@Test
 	public void testUpdateShouldReturn400BadRequestBecauseInvalidData() throws Exception {
 		String requestURI = END_POINT_PATH + "/NYC_USA";
@@ -320,7 +394,11 @@ public class DailyWeatherApiControllerTests {
 		
 		String requestBody = objectMapper.writeValueAsString(listDTO);
 
-		when(dailyWeatherService.updateByLocationCode(Mockito.eq(locationCode), Mockito.anyList())).thenReturn(dailyForecast);
+		// nothing stored yet, so both rows are inserted
+		ForecastMergeResult<DailyWeather> result = ForecastMerger.merge(List.of(), dailyForecast, 
+				DailyWeather::getId, DailyWeather::hasSameDataAs, DailyWeather::copyDataFrom);
+
+		when(dailyWeatherService.updateByLocationCode(Mockito.eq(locationCode), Mockito.anyList())).thenReturn(result);
 		
 		mockMvc.perform(put(requestURI).contentType(REQUEST_CONTENT_TYPE).content(requestBody))
 			.andExpect(status().isOk())
@@ -328,6 +406,7 @@ public class DailyWeatherApiControllerTests {
 			.andExpect(content().contentType(RESPONSE_CONTENT_TYPE))
 			.andExpect(jsonPath("$.daily_forecast[0].day_of_month", is(17)))
 			.andExpect(jsonPath("$.daily_forecast[1].day_of_month", is(18)))
+			.andExpect(header().string("X-Forecast-Inserted", "2"))
 			.andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/daily/" + locationCode)))
 			.andExpect(jsonPath("$._links.realtime_weather.href", is("http://localhost/v1/realtime/" + locationCode)))
 			.andExpect(jsonPath("$._links.hourly_forecast.href", is("http://localhost/v1/hourly/" + locationCode)))
@@ -0,0 +1,57 @@
+package com.skyapi.weatherforecast.daily;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.skyapi.weatherforecast.ForecastFingerprints;
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+import com.skyapi.weatherforecast.location.LocationRepository;
+
+public class DailyWeatherServiceTests {
+	
+	private DailyWeatherRepository dailyWeatherRepo;
+	
+	private LocationRepository locationRepo;
+	
+	private DailyWeatherService service;
+	
+	@BeforeEach
+	public void setUp() {
+		dailyWeatherRepo = mock(DailyWeatherRepository.class);
+		locationRepo = mock(LocationRepository.class);
+		
+		service = new DailyWeatherService(dailyWeatherRepo, locationRepo, mock(LocationCodeIndex.class), 
+				new LocationCache(locationRepo, 100, 60, 60), mock(ApplicationEventPublisher.class), 
+				new ForecastFingerprints(100, 60, true));
+	}
+	
+	// MySQL finds NYC_USA for nyc_usa, but the rows carry the stored code
+	@Test
+	public void testGetByMixedCaseLocationCodes() {
+		Location newYork = new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true);
+		when(locationRepo.findByCode("nyc_usa")).thenReturn(newYork);
+		when(locationRepo.findByCode("NYC_USA")).thenReturn(newYork);
+		
+		DailyWeather forecast = new DailyWeather().location(newYork).dayOfMonth(16).month(7)
+				.minTemp(20).maxTemp(30).precipitation(10).status("Sunny");
+		
+		when(dailyWeatherRepo.findByLocationCodes(List.of("NYC_USA"))).thenReturn(List.of(forecast));
+		
+		Map<String, List<DailyWeather>> forecastByCode = service.getByLocationCodes(List.of("nyc_usa", "NYC_USA", "ABCDE"));
+		
+		assertThat(forecastByCode).containsOnlyKeys("nyc_usa", "NYC_USA");
+		assertThat(forecastByCode.get("nyc_usa")).containsExactly(forecast);
+		assertThat(forecastByCode.get("NYC_USA")).containsExactly(forecast);
+	}
+}
@@ -528,7 +528,7 @@ public class FullWeatherApiControllerTests {
 		
 		String requestBody = objectMapper.writeValueAsString(fullWeatherDTO);
 		
-		when(weatherService.update(Mockito.eq(locationCode), Mockito.any())).thenReturn(location);
+		when(weatherService.update(Mockito.eq(locationCode), Mockito.any())).thenReturn(new FullWeatherUpdateResult(location, true));
 		
 		mockMvc.perform(put(requestURI).contentType(REQUEST_CONTENT_TYPE).content(requestBody))
 				.andExpect(status().isOk())
@@ -0,0 +1,84 @@
+package com.skyapi.weatherforecast.full;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.skyapi.weatherforecast.ForecastFingerprints;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherBulkRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherWriteBuffer;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({FullWeatherService.class, LocationCache.class, LocationCodeIndex.class, ForecastFingerprints.class, 
+		RealtimeWeatherWriteBuffer.class, RealtimeWeatherBulkRepository.class})
+public class FullWeatherServiceTests {
+	
+	@Autowired
+	private FullWeatherService service;
+	
+	@Autowired
+	private LocationCache locationCache;
+	
+	@Autowired
+	private TestEntityManager entityManager;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+	
+	@Test
+	public void testGetFullWeatherRunsTwoStatements() {
+		String locationCode = "NYC_USA";
+		
+		// warm the location cache, its lookup is not part of the full weather fetch
+		locationCache.get(locationCode);
+		entityManager.clear();
+		statistics.clear();
+		
+		Location location = service.get(locationCode);
+		
+		// walk everything the full weather DTO mapping reads
+		assertThat(location.getRealtimeWeather()).isNotNull();
+		assertThat(location.getListHourlyWeather()).isNotEmpty();
+		assertThat(location.getListDailyWeather()).isNotEmpty();
+		
+		location.getListHourlyWeather().forEach(hw -> hw.getStatus());
+		location.getListDailyWeather().forEach(dw -> dw.getStatus());
+		
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+	
+	// MySQL finds NYC_USA for nyc_usa, but the location carries the stored code
+	@Test
+	public void testGetByMixedCaseCodes() {
+		Map<String, Location> locationsByCode = service.getByCodes(List.of("nyc_usa", "NYC_USA", "ABCDE"));
+		
+		assertThat(locationsByCode).containsOnlyKeys("nyc_usa", "NYC_USA");
+		assertThat(locationsByCode.get("nyc_usa")).isSameAs(locationsByCode.get("NYC_USA"));
+		assertThat(locationsByCode.get("nyc_usa").getCode()).isEqualTo("NYC_USA");
+	}
+}
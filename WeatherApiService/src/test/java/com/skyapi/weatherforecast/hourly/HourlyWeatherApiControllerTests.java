@@ -7,12 +7,15 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -22,6 +25,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.ForecastMergeResult;
+import com.skyapi.weatherforecast.ForecastMerger;
 import com.skyapi.weatherforecast.GeolocationException;
 import com.skyapi.weatherforecast.GeolocationService;
 import com.skyapi.weatherforecast.common.HourlyWeather;
@@ -210,6 +215,71 @@ public class HourlyWeatherApiControllerTests {
 				.andDo(print());
 	}		
 	
+	@Test
+	public void testGetByCodeWithoutHeaderShouldUseLocalHour() throws Exception {
+		int localHour = 14;
+		String locationCode = "DELHI_IN";
+		String requestURI = END_POINT_PATH + "/" + locationCode;
+		
+		Location location = new Location();
+		location.setCode(locationCode);
+		location.setCityName("New Delhi");
+		location.setRegionName("Delhi");
+		location.setCountryCode("IN");
+		location.setCountryName("India");
+		location.setTimeZone("Asia/Kolkata");
+		
+		HourlyWeather forecast = new HourlyWeather()
+				.location(location)
+				.hourOfDay(15)
+				.temperature(31)
+				.precipitation(10)
+				.status("Sunny");
+		
+		Instant nextHour = Instant.parse("2024-01-01T09:30:00Z");
+		
+		when(hourlyWeatherService.getLocalHour(locationCode)).thenReturn(new LocalHour(localHour, nextHour));
+		when(hourlyWeatherService.getByLocationCode(locationCode, localHour)).thenReturn(List.of(forecast));
+		
+		mockMvc.perform(get(requestURI))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.hourly_forecast[0].hour_of_day", is(15)))
+				.andExpect(header().dateValue("Expires", nextHour.toEpochMilli()))
+				.andDo(print());
+	}
+	
+	@Test
+	public void testGetByCodesShouldUseEachLocationsHour() throws Exception {
+		Location location = new Location();
+		location.setCode("DELHI_IN");
+		location.setCityName("New Delhi");
+		location.setRegionName("Delhi");
+		location.setCountryCode("IN");
+		location.setCountryName("India");
+		
+		HourlyWeather forecast = new HourlyWeather()
+				.location(location)
+				.hourOfDay(15)
+				.temperature(31)
+				.precipitation(10)
+				.status("Sunny");
+		
+		when(hourlyWeatherService.getLocalHour("DELHI_IN")).thenReturn(new LocalHour(14, Instant.now()));
+		when(hourlyWeatherService.getLocalHour("NYC_USA")).thenReturn(null);
+		when(hourlyWeatherService.getLocalHour("ABCDE")).thenThrow(new LocationNotFoundException("ABCDE"));
+		
+		when(hourlyWeatherService.getByLocationCodes(Map.of("DELHI_IN", 14)))
+			.thenReturn(Map.of("DELHI_IN", List.of(forecast)));
+		
+		mockMvc.perform(get(END_POINT_PATH).param("codes", "DELHI_IN,NYC_USA,ABCDE"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results.DELHI_IN.hourly_forecast[0].hour_of_day", is(15)))
+				.andExpect(jsonPath("$.results.DELHI_IN._links.self.href", is("http://localhost/v1/hourly/DELHI_IN")))
+				.andExpect(jsonPath("$.errors.NYC_USA", containsString("X-Current-Hour")))
+				.andExpect(jsonPath("$.errors.ABCDE", is(new LocationNotFoundException("ABCDE").getMessage())))
+				.andDo(print());
+	}
+	
 	@Test
 	public void testUpdateShouldReturn400BadRequestBecauseNoData() throws Exception {
 		String requestURI = END_POINT_PATH + "/NYC_USA";
@@ -224,6 +294,30 @@ public class HourlyWeatherApiControllerTests {
 			.andDo(print());
 	}
 	
+	@Test
+	public void testUpdateShouldReturn400BadRequestBecauseDuplicateHour() throws Exception {
+		String requestURI = END_POINT_PATH + "/NYC_USA";
+		
+		HourlyWeatherDTO dto1 = new HourlyWeatherDTO()
+				.hourOfDay(10)
+				.temperature(13)
+				.precipitation(70)
+				.status("Cloudy");
+		
+		HourlyWeatherDTO dto2 = new HourlyWeatherDTO()
+				.hourOfDay(10)
+				.temperature(15)
+				.precipitation(60)
+				.status("Sunny");
+		
+		String requestBody = objectMapper.writeValueAsString(List.of(dto1, dto2));
+		
+		mockMvc.perform(put(requestURI).contentType(REQUEST_CONTENT_TYPE).content(requestBody))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.errors[0]", is("Hourly forecast data contains hour 10 more than once")))
+			.andDo(print());
+	}
+	
 	@Test
 	public void testUpdateShouldReturn400BadRequestBecauseInvalidData() throws Exception {
 		String requestURI = END_POINT_PATH + "/NYC_USA";
@@ -319,14 +413,23 @@ public class HourlyWeatherApiControllerTests {
 		
 		String requestBody = objectMapper.writeValueAsString(listDTO);
 		
+		// nothing stored yet, so both rows are inserted
+		ForecastMergeResult<HourlyWeather> result = ForecastMerger.merge(List.of(), hourlyForecast, 
+				HourlyWeather::getId, HourlyWeather::hasSameDataAs, HourlyWeather::copyDataFrom);
+		
 		when(hourlyWeatherService.updateByLocationCode(Mockito.eq(locationCode), Mockito.anyList()))
-												.thenReturn(hourlyForecast);
+												.thenReturn(result);
 		
 		mockMvc.perform(put(requestURI).contentType(REQUEST_CONTENT_TYPE).content(requestBody))
 			.andExpect(status().isOk())
 			.andExpect(content().contentType(RESPONSE_CONTENT_TYPE))
 			.andExpect(jsonPath("$.location", is(location.toString())))
 			.andExpect(jsonPath("$.hourly_forecast[0].hour_of_day", is(10)))
+			.andExpect(header().string("X-Forecast-Inserted", "2"))
+			.andExpect(header().string("X-Forecast-Updated", "0"))
+			.andExpect(header().string("X-Forecast-Deleted", "0"))
+			.andExpect(header().string("X-Forecast-Unchanged", "0"))
+			.andExpect(header().string("X-Data-Unchanged", "false"))
 			.andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/hourly/" + locationCode)))
 			.andExpect(jsonPath("$._links.realtime_weather.href", is("http://localhost/v1/realtime/" + locationCode)))
 			.andExpect(jsonPath("$._links.daily_forecast.href", is("http://localhost/v1/daily/" + locationCode)))
@@ -0,0 +1,86 @@
+package com.skyapi.weatherforecast.hourly;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.skyapi.weatherforecast.ForecastFingerprints;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+import com.skyapi.weatherforecast.location.LocationRepository;
+
+public class HourlyWeatherServiceTests {
+	
+	private HourlyWeatherRepository hourlyWeatherRepo;
+	
+	private LocationRepository locationRepo;
+	
+	private HourlyWeatherService service;
+	
+	@BeforeEach
+	public void setUp() {
+		hourlyWeatherRepo = mock(HourlyWeatherRepository.class);
+		locationRepo = mock(LocationRepository.class);
+		
+		LocalHourResolver localHourResolver = new LocalHourResolver(
+				Clock.fixed(Instant.parse("2024-07-01T13:20:00Z"), ZoneOffset.UTC));
+		
+		service = new HourlyWeatherService(hourlyWeatherRepo, locationRepo, mock(LocationCodeIndex.class),
+				new LocationCache(locationRepo, 100, 60, 60), mock(ApplicationEventPublisher.class),
+				localHourResolver, new ForecastFingerprints(100, 60, true));
+	}
+	
+	// the time zone has to survive the copy LocationCache makes of the entity
+	@Test
+	public void testGetLocalHourUsesTimeZoneOfCachedLocation() {
+		when(locationRepo.findByCode("NYC_USA")).thenReturn(new Location("NYC_USA", "New York City", "New York",
+				"United States of America", "US", true, "America/New_York"));
+		
+		LocalHour first = service.getLocalHour("NYC_USA");
+		LocalHour cached = service.getLocalHour("NYC_USA");
+		
+		assertThat(first.hour()).isEqualTo(9);
+		assertThat(cached).isEqualTo(first);
+	}
+	
+	// MySQL finds NYC_USA for nyc_usa, but the rows carry the stored code
+	@Test
+	public void testGetByMixedCaseLocationCodes() {
+		Location newYork = new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true);
+		when(locationRepo.findByCode("nyc_usa")).thenReturn(newYork);
+		
+		HourlyWeather pastHour = new HourlyWeather().id(newYork, 8).temperature(20).status("Sunny");
+		HourlyWeather nextHour = new HourlyWeather().id(newYork, 10).temperature(22).status("Sunny");
+		
+		when(hourlyWeatherRepo.findByLocationCodes(List.of("NYC_USA"), 9)).thenReturn(List.of(pastHour, nextHour));
+		
+		Map<String, List<HourlyWeather>> forecastByCode = service.getByLocationCodes(Map.of("nyc_usa", 9, "ABCDE", 9));
+		
+		assertThat(forecastByCode).containsOnlyKeys("nyc_usa");
+		assertThat(forecastByCode.get("nyc_usa")).containsExactly(nextHour);
+		
+		verify(hourlyWeatherRepo).findByLocationCodes(eq(List.of("NYC_USA")), eq(9));
+	}
+	
+	@Test
+	public void testGetLocalHourWithoutTimeZone() {
+		when(locationRepo.findByCode("NYC_USA")).thenReturn(new Location("NYC_USA", "New York City", "New York",
+				"United States of America", "US", true));
+		
+		assertThat(service.getLocalHour("NYC_USA")).isNull();
+	}
+}
@@ -0,0 +1,37 @@
+package com.skyapi.weatherforecast.hourly;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+public class LocalHourResolverTests {
+	
+	private LocalHourResolver resolver = new LocalHourResolver(
+			Clock.fixed(Instant.parse("2024-07-01T13:20:00Z"), ZoneOffset.UTC));
+
+	@Test
+	public void testResolveWholeHourOffset() {
+		LocalHour localHour = resolver.resolve("America/New_York");
+		
+		assertThat(localHour.hour()).isEqualTo(9);
+		assertThat(localHour.validUntil()).isEqualTo(Instant.parse("2024-07-01T14:00:00Z"));
+	}
+	
+	@Test
+	public void testResolveHalfHourOffset() {
+		LocalHour localHour = resolver.resolve("Asia/Kolkata");
+		
+		assertThat(localHour.hour()).isEqualTo(18);
+		assertThat(localHour.validUntil()).isEqualTo(Instant.parse("2024-07-01T13:30:00Z"));
+	}
+	
+	@Test
+	public void testResolveMissingOrInvalidTimeZone() {
+		assertThat(resolver.resolve(null)).isNull();
+		assertThat(resolver.resolve("Mars/Olympus_Mons")).isNull();
+	}
+}
@@ -2,6 +2,7 @@ package com.skyapi.weatherforecast.location;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -16,6 +17,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import com.skyapi.weatherforecast.common.Location;
@@ -196,5 +198,31 @@ public class FilterableLocationRepositoryTests {
 		});
 		
 		content.forEach(System.out::println);
-	}		
-}
\ No newline at end of file
+	}
+	
+	@Test
+	public void testListAfterMatchesOffsetPaging() {
+		int pageSize = 5;
+		
+		Sort sort = Sort.by("regionName").descending().and(Sort.by("code").ascending());
+		
+		Page<Location> firstTwoPages = repository.listWithFilter(PageRequest.of(0, pageSize * 2, sort), Collections.emptyMap());
+		
+		Slice<Location> firstSlice = repository.listWithFilterAfter(PageRequest.of(0, pageSize, sort), null, Collections.emptyMap());
+		
+		assertThat(firstSlice.hasNext()).isTrue();
+		
+		Location last = firstSlice.getContent().get(pageSize - 1);
+		List<Object> afterKeys = Arrays.asList(last.getRegionName(), last.getCode());
+		
+		Slice<Location> secondSlice = repository.listWithFilterAfter(PageRequest.of(0, pageSize, sort), afterKeys, Collections.emptyMap());
+		
+		assertThat(firstSlice.getContent()).extracting(Location::getCode)
+			.isEqualTo(firstTwoPages.getContent().subList(0, pageSize).stream().map(Location::getCode).toList());
+		
+		assertThat(secondSlice.getContent()).extracting(Location::getCode)
+			.isEqualTo(firstTwoPages.getContent().subList(pageSize, pageSize * 2).stream().map(Location::getCode).toList());
+		
+		secondSlice.forEach(System.out::println);
+	}
+}
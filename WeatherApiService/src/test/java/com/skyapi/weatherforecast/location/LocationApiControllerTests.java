@@ -3,9 +3,12 @@ package com.skyapi.weatherforecast.location;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -19,6 +22,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -30,6 +34,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -53,6 +59,15 @@ public class LocationApiControllerTests {
 	@MockBean 
 	LocationService service;
 	
+	@MockBean 
+	LocationImportService importService;
+	
+	@MockBean 
+	LocationSuggestIndex suggestIndex;
+	
+	@MockBean 
+	LocationNearbyIndex nearbyIndex;
+	
 	@Test
 	public void testAddShouldReturn400BadRequest() throws Exception {
 		LocationDTO location = new LocationDTO();
@@ -415,6 +430,99 @@ public class LocationApiControllerTests {
 			.andDo(print());			
 	}		
 	
+	@Test
+	public void testPaginationWithoutCountInMiddlePage() throws Exception {
+		int pageSize = 5;
+		
+		List<Location> listLocations = new ArrayList<>(pageSize);
+		
+		for (int i = 1; i <= pageSize; i++) {
+			listLocations.add(new Location("CODE_" + i, "City " + i, "Region Name", "US", "Country Name"));
+		}
+		
+		int pageNum = 3;
+		String sortField = "code";
+		
+		Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by(sortField));
+		Slice<Location> slice = new SliceImpl<>(listLocations, pageable, true);
+		
+		Mockito.when(service.listByPageWithoutCount(anyInt(), anyInt(), anyString(), anyMap())).thenReturn(slice);
+		
+		String hostName = "http://localhost";
+		String requestURI = END_POINT_PATH + "?page=" + pageNum + "&size=" + pageSize + "&sort=" + sortField + "&count=false";
+		
+		String firstPageURI = END_POINT_PATH + "?page=1&size=" + pageSize + "&sort=" + sortField;
+		String nextPageURI = END_POINT_PATH + "?page=" + (pageNum + 1) + "&size=" + pageSize + "&sort=" + sortField;
+		String prevPageURI = END_POINT_PATH + "?page=" + (pageNum - 1) + "&size=" + pageSize + "&sort=" + sortField;
+		
+		mockMvc.perform(get(requestURI))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(RESPONSE_CONTENT_TYPE))
+			.andExpect(jsonPath("$.page.estimated", is(true)))
+			.andExpect(jsonPath("$.page.total_elements", is(16)))
+			.andExpect(jsonPath("$._links.first.href", containsString(hostName + firstPageURI)))
+			.andExpect(jsonPath("$._links.next.href", containsString(hostName + nextPageURI)))
+			.andExpect(jsonPath("$._links.next.href", containsString("count=false")))
+			.andExpect(jsonPath("$._links.prev.href", containsString(hostName + prevPageURI)))
+			.andExpect(jsonPath("$._links.last").doesNotExist())
+			.andDo(print());
+		
+		Mockito.verify(service, Mockito.never()).listByPage(anyInt(), anyInt(), anyString(), anyMap());
+	}
+	
+	@Test
+	public void testCursorLinksInFirstPage() throws Exception {
+		int pageSize = 5;
+		
+		List<Location> listLocations = new ArrayList<>(pageSize);
+		
+		for (int i = 1; i <= pageSize; i++) {
+			listLocations.add(new Location("CODE_" + i, "City " + i, "Region Name", "US", "Country Name"));
+		}
+		
+		Pageable pageable = PageRequest.of(0, pageSize, Sort.by("cityName").and(Sort.by("code")));
+		Slice<Location> slice = new SliceImpl<>(listLocations, pageable, true);
+		
+		Mockito.when(service.listByCursor(anyInt(), anyString(), any(), anyMap())).thenReturn(slice);
+		
+		String requestURI = END_POINT_PATH + "?after=&size=" + pageSize + "&sort=city_name";
+		
+		MvcResult mvcResult = mockMvc.perform(get(requestURI))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(RESPONSE_CONTENT_TYPE))
+			.andExpect(jsonPath("$.page").doesNotExist())
+			.andExpect(jsonPath("$._links.first").doesNotExist())
+			.andExpect(jsonPath("$._links.next.href", containsString("http://localhost" + END_POINT_PATH + "?after=")))
+			.andDo(print())
+			.andReturn();
+		
+		Mockito.verify(service).listByCursor(eq(pageSize), eq("cityName"), isNull(), anyMap());
+		
+		String nextPageURI = mapper.readTree(mvcResult.getResponse().getContentAsString())
+				.path("_links").path("next").path("href").asText().replaceAll("\\{.*\\}$", "");
+		
+		Mockito.when(service.listByCursor(anyInt(), anyString(), any(), anyMap()))
+				.thenReturn(new SliceImpl<>(listLocations, pageable, false));
+		
+		mockMvc.perform(get(nextPageURI))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$._links.first.href", containsString("after=")))
+			.andExpect(jsonPath("$._links.next").doesNotExist())
+			.andDo(print());
+		
+		Mockito.verify(service).listByCursor(eq(pageSize), eq("cityName"), eq(List.of("City 5", "CODE_5")), anyMap());
+	}
+	
+	@Test
+	public void testCursorShouldReturn400BadRequestInvalidToken() throws Exception {
+		String requestURI = END_POINT_PATH + "?after=not-a-cursor&sort=code";
+		
+		mockMvc.perform(get(requestURI))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]", containsString("invalid cursor")))
+				.andDo(print());
+	}
+	
 	@Test
 	public void testListByPageShouldReturn400BadRequestInvalidPageNum() throws Exception {
 		int pageNum = 0;
@@ -466,6 +574,143 @@ public class LocationApiControllerTests {
 				.andDo(print());
 	}	
 	
+	@Test
+	public void testExportShouldReturnOneLocationPerLine() throws Exception {
+		Location location1 = new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true, "America/New_York");
+		Location location2 = new Location("DELHI_IN", "New Delhi", null, "India", "IN", false, null);
+		
+		Mockito.doAnswer(invocation -> {
+			Consumer<Location> consumer = invocation.getArgument(2);
+			consumer.accept(location1);
+			consumer.accept(location2);
+			return 2L;
+		}).when(service).exportWithFilter(eq("code"), anyMap(), any());
+		
+		String expectedContent = "{\"code\":\"NYC_USA\",\"city_name\":\"New York City\",\"region_name\":\"New York\","
+				+ "\"country_code\":\"US\",\"country_name\":\"United States of America\",\"enabled\":true,"
+				+ "\"time_zone\":\"America/New_York\"}\n"
+				+ "{\"code\":\"DELHI_IN\",\"city_name\":\"New Delhi\",\"country_code\":\"IN\","
+				+ "\"country_name\":\"India\",\"enabled\":false}\n";
+		
+		mockMvc.perform(get(END_POINT_PATH + "/export"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+				.andExpect(content().string(expectedContent))
+				.andDo(print());
+	}
+	
+	@Test
+	public void testExportShouldReturn400BadRequestInvalidSortField() throws Exception {
+		mockMvc.perform(get(END_POINT_PATH + "/export?sort=code_abc"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]", containsString("invalid sort field")))
+				.andDo(print());
+		
+		Mockito.verify(service, Mockito.never()).exportWithFilter(anyString(), anyMap(), any());
+	}
+	
+	@Test
+	public void testImportShouldReturnErrorsProgressAndSummary() throws Exception {
+		String bodyContent = "code,city_name,country_code,country_name,enabled\n"
+				+ "NYC_USA,New York City,US,United States of America,true\n"
+				+ "X,Nowhere,US,United States of America,true\n";
+		
+		Mockito.doAnswer(invocation -> {
+			LocationImportListener listener = invocation.getArgument(2);
+			listener.onRowRejected(new LocationImportError(2, "X", List.of("Location code must have 3-12 characters")));
+			listener.onBatchCompleted(new LocationImportProgress(2, 1, 1));
+			return new LocationImportProgress(2, 1, 1);
+		}).when(importService).importLocations(eq(LocationImportService.Format.CSV), any(), any());
+		
+		String expectedContent = "{\"type\":\"error\",\"row\":2,\"code\":\"X\",\"errors\":[\"Location code must have 3-12 characters\"]}\n"
+				+ "{\"type\":\"progress\",\"rows\":2,\"inserted\":1,\"rejected\":1}\n"
+				+ "{\"type\":\"summary\",\"rows\":2,\"inserted\":1,\"rejected\":1}\n";
+		
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("text/csv").content(bodyContent))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+				.andExpect(content().string(expectedContent))
+				.andDo(print());
+	}
+	
+	@Test
+	public void testImportShouldReturn415UnsupportedMediaType() throws Exception {
+		mockMvc.perform(post(END_POINT_PATH + "/import").contentType("application/json").content("[]"))
+				.andExpect(status().isUnsupportedMediaType())
+				.andDo(print());
+		
+		Mockito.verifyNoInteractions(importService);
+	}
+	
+	@Test
+	public void testSuggestShouldReturn200OK() throws Exception {
+		Mockito.when(suggestIndex.suggest("new", 10)).thenReturn(List.of(
+				new LocationSuggestion("NEWARK_USA", "Newark", "New Jersey", "US", "United States of America"),
+				new LocationSuggestion("DELHI_IN", "New Delhi", null, "IN", "India")));
+		
+		mockMvc.perform(get(END_POINT_PATH + "/suggest?q=new"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].code", is("NEWARK_USA")))
+				.andExpect(jsonPath("$[0].city_name", is("Newark")))
+				.andExpect(jsonPath("$[0].region_name", is("New Jersey")))
+				.andExpect(jsonPath("$[1].code", is("DELHI_IN")))
+				.andExpect(jsonPath("$[1].region_name").doesNotExist())
+				.andDo(print());
+	}
+	
+	@Test
+	public void testSuggestShouldReturn204NoContent() throws Exception {
+		Mockito.when(suggestIndex.suggest("xyz", 5)).thenReturn(List.of());
+		
+		mockMvc.perform(get(END_POINT_PATH + "/suggest?q=xyz&limit=5"))
+				.andExpect(status().isNoContent())
+				.andDo(print());
+	}
+	
+	@Test
+	public void testSuggestShouldReturn400BadRequest() throws Exception {
+		mockMvc.perform(get(END_POINT_PATH + "/suggest").param("q", " ").param("limit", "100"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors.length()", is(2)))
+				.andDo(print());
+		
+		Mockito.verifyNoInteractions(suggestIndex);
+	}
+	
+	@Test
+	public void testNearbyShouldReturn200OK() throws Exception {
+		Mockito.when(nearbyIndex.findNearest(40.758, -73.9855, 2)).thenReturn(List.of(
+				new NearbyLocation("NYC_USA", "New York City", "New York", "US", "United States of America", 40.7128, -74.006, 5.4),
+				new NearbyLocation("NEWARK_USA", "Newark", "New Jersey", "US", "United States of America", 40.7357, -74.1724, 15.9)));
+		
+		mockMvc.perform(get(END_POINT_PATH + "/nearby?lat=40.758&lon=-73.9855&k=2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].code", is("NYC_USA")))
+				.andExpect(jsonPath("$[0].latitude", is(40.7128)))
+				.andExpect(jsonPath("$[0].distance_km", is(5.4)))
+				.andExpect(jsonPath("$[1].code", is("NEWARK_USA")))
+				.andDo(print());
+	}
+	
+	@Test
+	public void testNearbyShouldReturn204NoContent() throws Exception {
+		Mockito.when(nearbyIndex.findNearest(0.0, 0.0, 5)).thenReturn(List.of());
+		
+		mockMvc.perform(get(END_POINT_PATH + "/nearby?lat=0&lon=0"))
+				.andExpect(status().isNoContent())
+				.andDo(print());
+	}
+	
+	@Test
+	public void testNearbyShouldReturn400BadRequest() throws Exception {
+		mockMvc.perform(get(END_POINT_PATH + "/nearby?lat=91&lon=-181&k=0"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors.length()", is(3)))
+				.andDo(print());
+		
+		Mockito.verifyNoInteractions(nearbyIndex);
+	}
+	
 	@Test
 	public void testGetShouldReturn405MethodNotAllowed() throws Exception {
 		String requestURI = END_POINT_PATH + "/ABCDEF";
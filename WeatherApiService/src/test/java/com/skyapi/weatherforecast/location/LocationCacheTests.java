@@ -0,0 +1,85 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationCacheTests {
+	
+	private LocationRepository repo;
+	
+	private LocationCache cache;
+	
+	@BeforeEach
+	public void setUp() {
+		repo = mock(LocationRepository.class);
+		cache = new LocationCache(repo, 100, 60, 60);
+	}
+	
+	@Test
+	public void testGetReadsThroughOnce() {
+		when(repo.findByCode("NYC_USA"))
+			.thenReturn(new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true));
+		
+		Optional<Location> first = cache.get("NYC_USA");
+		Optional<Location> second = cache.get("NYC_USA");
+		
+		assertThat(first).isPresent();
+		assertThat(second.get().getCityName()).isEqualTo("New York City");
+		assertThat(second.get().isEnabled()).isTrue();
+		
+		verify(repo, times(1)).findByCode("NYC_USA");
+		
+		assertThat(cache.getStats().hitCount()).isEqualTo(1);
+		assertThat(cache.getStats().missCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void testUnknownCodeIsCached() {
+		assertThat(cache.get("ABCDE")).isEmpty();
+		assertThat(cache.get("ABCDE")).isEmpty();
+		
+		verify(repo, times(1)).findByCode("ABCDE");
+	}
+	
+	@Test
+	public void testCodeCaseSharesEntry() {
+		Location newYork = new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true);
+		when(repo.findByCode("nyc_usa")).thenReturn(newYork);
+		
+		assertThat(cache.get("nyc_usa").get().getCode()).isEqualTo("NYC_USA");
+		assertThat(cache.get("NYC_USA")).isPresent();
+		
+		verify(repo, times(1)).findByCode("nyc_usa");
+		
+		Location renamed = new Location("NYC_USA", "New York", "New York", "United States of America", "US", true);
+		when(repo.findByCode("nyc_usa")).thenReturn(renamed);
+		
+		cache.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, renamed));
+		
+		assertThat(cache.get("nyc_usa").get().getCityName()).isEqualTo("New York");
+	}
+	
+	@Test
+	public void testLocationChangeEvictsEntry() {
+		assertThat(cache.get("TKY_JP")).isEmpty();
+		
+		Location tokyo = new Location("TKY_JP", "Tokyo", "Tokyo", "Japan", "JP", true);
+		when(repo.findByCode("TKY_JP")).thenReturn(tokyo);
+		
+		cache.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.ADDED, tokyo));
+		
+		assertThat(cache.get("TKY_JP")).isPresent();
+		
+		verify(repo, times(2)).findByCode("TKY_JP");
+	}
+}
@@ -0,0 +1,79 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationCodeIndexTests {
+	
+	private LocationRepository repo;
+	
+	private LocationCodeIndex index;
+	
+	@BeforeEach
+	public void setUp() {
+		repo = mock(LocationRepository.class);
+		
+		when(repo.findUntrashedCodes()).thenReturn(List.of(
+				new Location("NYC_USA", "New York City", "New York", "United States of America", "US"),
+				new Location("DELHI_IN", "Delhi", "Delhi", "India", "IN")));
+		
+		index = new LocationCodeIndex(repo);
+		index.load();
+	}
+	
+	@Test
+	public void testGetCodeFromIndex() {
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.getCode("US", "New York City")).isEqualTo("NYC_USA");
+		assertThat(index.getCode("in", "DELHI")).isEqualTo("DELHI_IN");
+		
+		verify(repo, never()).findByCountryCodeAndCityName("US", "New York City");
+	}
+	
+	@Test
+	public void testGetCodeFallsBackToDatabaseOnce() {
+		when(repo.findByCountryCodeAndCityName("VN", "Hanoi"))
+			.thenReturn(new Location("HN_VN", "Hanoi", "Hanoi", "Viet Nam", "VN"));
+		
+		assertThat(index.getCode("VN", "Hanoi")).isEqualTo("HN_VN");
+		assertThat(index.getCode("VN", "Hanoi")).isEqualTo("HN_VN");
+		
+		verify(repo, times(1)).findByCountryCodeAndCityName("VN", "Hanoi");
+	}
+	
+	@Test
+	public void testGetCodeNotFound() {
+		assertThat(index.getCode("XX", "Nowhere")).isNull();
+		assertThat(index.getCode(null, "Nowhere")).isNull();
+	}
+	
+	@Test
+	public void testIndexFollowsLocationChanges() {
+		Location tokyo = new Location("TKY_JP", "Tokyo", "Tokyo", "Japan", "JP");
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.ADDED, tokyo));
+		
+		assertThat(index.getCode("JP", "Tokyo")).isEqualTo("TKY_JP");
+		
+		Location renamed = new Location("NYC_USA", "New York", "New York", "United States of America", "US");
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, renamed));
+		
+		assertThat(index.getCode("US", "New York")).isEqualTo("NYC_USA");
+		assertThat(index.getCode("US", "New York City")).isNull();
+		
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.TRASHED, tokyo));
+		
+		assertThat(index.getCode("JP", "Tokyo")).isNull();
+		assertThat(index.size()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,57 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.skyapi.weatherforecast.BadRequestException;
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationCursorTests {
+	
+	private Sort sort = LocationCursor.withTieBreaker(Sort.by("enabled").descending().and(Sort.by("regionName")));
+	
+	@Test
+	public void testEncodedCursorPassesCheck() throws Exception {
+		Location location = new Location("NYC_USA", "New York City", null, "United States of America", "US", true);
+		
+		String token = LocationCursor.encode("-enabled,region_name", sort, location);
+		List<Object> keys = LocationCursor.decode(token, "-enabled,region_name");
+		
+		assertThat(keys).containsExactly(true, null, "NYC_USA");
+		
+		LocationCursor.checkKeys("-enabled,region_name", sort, keys);
+	}
+	
+	@Test
+	public void testKeyOfWrongTypeIsRejected() throws Exception {
+		List<Object> keys = LocationCursor.decode(token("{\"sort\":\"-enabled,region_name\",\"keys\":[\"yes\",null,\"NYC_USA\"]}"), 
+				"-enabled,region_name");
+		
+		assertThatThrownBy(() -> LocationCursor.checkKeys("-enabled,region_name", sort, keys))
+			.isInstanceOf(BadRequestException.class);
+		
+		assertThatThrownBy(() -> LocationCursor.checkKeys("-enabled,region_name", sort, Arrays.asList(null, "New York", "NYC_USA")))
+			.isInstanceOf(BadRequestException.class);
+		
+		assertThatThrownBy(() -> LocationCursor.checkKeys("-enabled,region_name", sort, Arrays.asList(true, 5, "NYC_USA")))
+			.isInstanceOf(BadRequestException.class);
+	}
+	
+	@Test
+	public void testKeyCountMustMatchSort() {
+		assertThatThrownBy(() -> LocationCursor.checkKeys("-enabled,region_name", sort, List.of(true)))
+			.isInstanceOf(BadRequestException.class);
+	}
+	
+	private String token(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
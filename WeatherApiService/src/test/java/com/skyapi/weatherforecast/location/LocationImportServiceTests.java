@@ -0,0 +1,172 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationImportService.Format;
+
+import jakarta.validation.Validation;
+
+public class LocationImportServiceTests {
+	
+	private LocationBulkRepository bulkRepo;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private LocationImportService importService;
+	
+	private List<LocationImportError> errors = new ArrayList<>();
+	
+	private List<LocationImportProgress> progress = new ArrayList<>();
+	
+	private LocationImportListener listener = new LocationImportListener() {
+		
+		@Override
+		public void onRowRejected(LocationImportError error) {
+			errors.add(error);
+		}
+		
+		@Override
+		public void onBatchCompleted(LocationImportProgress batchProgress) {
+			progress.add(batchProgress);
+		}
+	};
+	
+	@BeforeEach
+	public void setUp() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+		
+		bulkRepo = mock(LocationBulkRepository.class);
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		importService = new LocationImportService(bulkRepo, eventPublisher, 
+				Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, 2);
+		
+		when(bulkRepo.insertAbsent(anyList(), anyInt())).thenReturn(Set.of());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testImportCsvInBatches() throws IOException {
+		String body = """
+				code,city_name,region_name,country_code,country_name,enabled,time_zone
+				NYC_USA,New York City,New York,US,United States of America,true,America/New_York
+				"LACA_USA","Los Angeles, CA",,US,United States of America,true,
+				DELHI_IN,New Delhi,,IN,India,false,Asia/Kolkata
+				""";
+		
+		LocationImportProgress summary = importService.importLocations(Format.CSV, input(body), listener);
+		
+		assertThat(summary).isEqualTo(new LocationImportProgress(3, 3, 0));
+		assertThat(errors).isEmpty();
+		assertThat(progress).containsExactly(new LocationImportProgress(2, 2, 0), new LocationImportProgress(3, 3, 0));
+		
+		ArgumentCaptor<List<Location>> captor = ArgumentCaptor.forClass(List.class);
+		verify(bulkRepo, times(2)).insertAbsent(captor.capture(), anyInt());
+		
+		Location losAngeles = captor.getAllValues().get(0).get(1);
+		assertThat(losAngeles.getCityName()).isEqualTo("Los Angeles, CA");
+		assertThat(losAngeles.getRegionName()).isNull();
+		assertThat(losAngeles.getTimeZone()).isNull();
+		
+		verify(eventPublisher, times(3)).publishEvent(any(LocationChangedEvent.class));
+	}
+	
+	@Test
+	public void testImportNdjsonReportsInvalidRowsAndContinues() throws IOException {
+		String body = """
+				{"code":"NYC_USA","city_name":"New York City","country_code":"US","country_name":"United States of America","enabled":true}
+				{"code":"X","city_name":"Nowhere","country_code":"US","country_name":"United States of America"}
+				{"code":"DELHI_IN","city_name":"New Delhi","country_code":"IN","country_name":"India","enabled":"maybe"}
+				
+				{"code":"NYC_USA","city_name":"New York City","country_code":"US","country_name":"United States of America"}
+				{"code":"MUMBAI_IN","city_name":"Mumbai","country_code":"IN","country_name":"India","enabled":true}
+				""";
+		
+		when(bulkRepo.insertAbsent(anyList(), anyInt())).thenReturn(Set.of("MUMBAI_IN"));
+		
+		LocationImportProgress summary = importService.importLocations(Format.NDJSON, input(body), listener);
+		
+		assertThat(summary).isEqualTo(new LocationImportProgress(5, 1, 4));
+		assertThat(errors).extracting(LocationImportError::row).containsExactly(2L, 3L, 4L, 5L);
+		assertThat(errors.get(0).errors()).containsExactly("Location code must have 3-12 characters");
+		assertThat(errors.get(1).code()).isNull();
+		assertThat(errors.get(2).errors()).containsExactly("Location code is already used at row 1");
+		assertThat(errors.get(3).errors()).containsExactly("Location code already exists");
+	}
+	
+	@Test
+	public void testCodesDifferingInCaseOnlyAreDuplicates() throws IOException {
+		String body = """
+				code,city_name,country_code,country_name
+				nyc_usa,New York City,US,United States of America
+				NYC_USA,New York City,US,United States of America
+				DELHI_IN,New Delhi,IN,India
+				""";
+		
+		LocationImportProgress summary = importService.importLocations(Format.CSV, input(body), listener);
+		
+		assertThat(summary).isEqualTo(new LocationImportProgress(3, 2, 1));
+		assertThat(errors).extracting(LocationImportError::row).containsExactly(2L);
+		assertThat(errors.get(0).errors()).containsExactly("Location code is already used at row 1");
+	}
+	
+	@Test
+	public void testImportStopsAtMalformedInput() throws IOException {
+		String body = """
+				{"code":"NYC_USA","city_name":"New York City","country_code":"US","country_name":"United States of America"}
+				{"code":"DELHI_IN", oops
+				{"code":"MUMBAI_IN","city_name":"Mumbai","country_code":"IN","country_name":"India"}
+				""";
+		
+		LocationImportProgress summary = importService.importLocations(Format.NDJSON, input(body), listener);
+		
+		assertThat(summary).isEqualTo(new LocationImportProgress(2, 1, 1));
+		assertThat(errors).hasSize(1);
+		assertThat(errors.get(0).row()).isEqualTo(2);
+		assertThat(errors.get(0).errors().get(0)).startsWith("Malformed input");
+	}
+	
+	@Test
+	public void testFailedBatchRejectsEveryRow() throws IOException {
+		String body = """
+				code,city_name,country_code,country_name
+				NYC_USA,New York City,US,United States of America
+				DELHI_IN,New Delhi,IN,India
+				""";
+		
+		when(bulkRepo.insertAbsent(anyList(), anyInt())).thenThrow(new QueryTimeoutException("timeout"));
+		
+		LocationImportProgress summary = importService.importLocations(Format.CSV, input(body), listener);
+		
+		assertThat(summary).isEqualTo(new LocationImportProgress(2, 0, 2));
+		assertThat(errors).extracting(LocationImportError::code).containsExactly("NYC_USA", "DELHI_IN");
+		assertThat(errors.get(0).errors()).containsExactly("Batch insert failed: timeout");
+	}
+	
+	private ByteArrayInputStream input(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,164 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.MicroBenchmark;
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationNearbyIndexTests {
+	
+	private LocationRepository repo;
+	
+	private LocationNearbyIndex index;
+	
+	private List<NearbyLocation> nearest;
+	
+	@BeforeEach
+	public void setUp() {
+		repo = mock(LocationRepository.class);
+		
+		when(repo.findUntrashedWithCoordinates()).thenReturn(List.of(
+				location("NYC_USA", "New York City", 40.7128, -74.0060),
+				location("NEWARK_USA", "Newark", 40.7357, -74.1724),
+				location("BOSTON_USA", "Boston", 42.3601, -71.0589),
+				location("SUVA_FJ", "Suva", -18.1416, 178.4419),
+				location("APIA_WS", "Apia", -13.8506, -171.7513),
+				location("LYR_NO", "Longyearbyen", 78.2232, 15.6267)));
+		
+		index = new LocationNearbyIndex(repo);
+		index.load();
+	}
+	
+	@Test
+	public void testFindNearestInDistanceOrder() {
+		assertThat(index.size()).isEqualTo(6);
+		
+		// Times Square
+		List<NearbyLocation> locations = index.findNearest(40.7580, -73.9855, 3);
+		
+		assertThat(locations).extracting(NearbyLocation::code).containsExactly("NYC_USA", "NEWARK_USA", "BOSTON_USA");
+		assertThat(locations.get(0).distanceKm()).isBetween(5.0, 6.0);
+		assertThat(locations.get(2).distanceKm()).isBetween(300.0, 310.0);
+	}
+	
+	@Test
+	public void testFindNearestAcrossAntimeridianAndPole() {
+		// on the antimeridian, Suva is about 200 km west and Apia about 900 km east
+		assertThat(index.findNearest(-17.0, 180.0, 2)).extracting(NearbyLocation::code)
+			.containsExactly("SUVA_FJ", "APIA_WS");
+		
+		assertThat(index.findNearest(90.0, 0.0, 1)).extracting(NearbyLocation::code)
+			.containsExactly("LYR_NO");
+	}
+	
+	@Test
+	public void testIndexFollowsLocationChanges() {
+		Location tokyo = location("TKY_JP", "Tokyo", 35.6762, 139.6503);
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.ADDED, tokyo));
+		
+		assertThat(index.findNearest(35.0, 139.0, 1)).extracting(NearbyLocation::code).containsExactly("TKY_JP");
+		
+		// moved to Hartford, between New York City and Boston
+		Location moved = location("NEWARK_USA", "Hartford", 41.7658, -72.6734);
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, moved));
+		
+		assertThat(index.findNearest(41.8, -72.7, 1)).extracting(NearbyLocation::cityName).containsExactly("Hartford");
+		
+		// coordinates cleared
+		Location cleared = new Location("BOSTON_USA", "Boston", "Massachusetts", "United States of America", "US");
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, cleared));
+		
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.TRASHED, tokyo));
+		
+		assertThat(index.findNearest(35.0, 139.0, 10)).extracting(NearbyLocation::code)
+			.doesNotContain("TKY_JP", "BOSTON_USA");
+		assertThat(index.size()).isEqualTo(5);
+	}
+	
+	@Test
+	public void testFindNearestMatchesFullScan() {
+		Random random = new Random(42);
+		List<Location> locations = randomLocations(random, 5_000);
+		
+		when(repo.findUntrashedWithCoordinates()).thenReturn(locations);
+		
+		index = new LocationNearbyIndex(repo);
+		index.load();
+		
+		for (int i = 0; i < 500; i++) {
+			double latitude = randomLatitude(random);
+			double longitude = random.nextDouble() * 360 - 180;
+			int k = 1 + random.nextInt(20);
+			
+			List<String> expectedCodes = locations.stream()
+					.sorted(Comparator.comparingDouble(location -> 
+						haversine(latitude, longitude, location.getLatitude(), location.getLongitude())))
+					.limit(k)
+					.map(Location::getCode)
+					.toList();
+			
+			assertThat(index.findNearest(latitude, longitude, k)).extracting(NearbyLocation::code)
+				.containsExactlyElementsOf(expectedCodes);
+		}
+	}
+	
+	@Test
+	@Tag(MicroBenchmark.TAG)
+	public void benchmarkFindNearest() throws Exception {
+		Random random = new Random(7);
+		
+		when(repo.findUntrashedWithCoordinates()).thenReturn(randomLocations(random, 20_000));
+		
+		index = new LocationNearbyIndex(repo);
+		index.load();
+		
+		double[][] queries = new double[1_000][];
+		
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = new double[] { randomLatitude(random), random.nextDouble() * 360 - 180 };
+		}
+		
+		MicroBenchmark.run("LocationNearbyIndex 10 nearest of 20k locations", 10_000, 100_000, 
+				i -> nearest = index.findNearest(queries[i % queries.length][0], queries[i % queries.length][1], 10));
+	}
+	
+	private List<Location> randomLocations(Random random, int count) {
+		List<Location> locations = new ArrayList<>();
+		
+		for (int i = 0; i < count; i++) {
+			locations.add(location("LOC_" + i, "City " + i, randomLatitude(random), random.nextDouble() * 360 - 180));
+		}
+		
+		return locations;
+	}
+	
+	// uniform over the sphere
+	private double randomLatitude(Random random) {
+		return Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1));
+	}
+	
+	private double haversine(double latitude1, double longitude1, double latitude2, double longitude2) {
+		double dPhi = Math.toRadians(latitude2 - latitude1);
+		double dLambda = Math.toRadians(longitude2 - longitude1);
+		
+		double a = Math.pow(Math.sin(dPhi / 2), 2) 
+				+ Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(dLambda / 2), 2);
+		
+		return 2 * Math.asin(Math.sqrt(a));
+	}
+	
+	private Location location(String code, String cityName, double latitude, double longitude) {
+		return new Location(code, cityName, null, "Somewhere", "XX", true, null, latitude, longitude);
+	}
+}
@@ -0,0 +1,117 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.MicroBenchmark;
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationSuggestIndexTests {
+	
+	private LocationRepository repo;
+	
+	private LocationSuggestIndex index;
+	
+	private List<LocationSuggestion> suggestions;
+	
+	@BeforeEach
+	public void setUp() {
+		repo = mock(LocationRepository.class);
+		
+		when(repo.findUntrashedCodes()).thenReturn(List.of(
+				new Location("NYC_USA", "New York City", "New York", "United States of America", "US"),
+				new Location("YORK_UK", "York", "North Yorkshire", "United Kingdom", "GB"),
+				new Location("NEWARK_USA", "Newark", "New Jersey", "United States of America", "US"),
+				new Location("JC_USA", "Jersey City", "New Jersey", "United States of America", "US"),
+				new Location("SP_BR", "São Paulo", null, "Brazil", "BR")));
+		
+		index = new LocationSuggestIndex(repo);
+		index.load();
+	}
+	
+	@Test
+	public void testSuggestCityNamesFirst() {
+		assertThat(index.size()).isEqualTo(5);
+		
+		// by the matched term: "new york city" sorts before "newark", then Jersey City by region name
+		assertThat(index.suggest("new", 10)).extracting(LocationSuggestion::code)
+			.containsExactly("NYC_USA", "NEWARK_USA", "JC_USA");
+		
+		// "jersey" of Newark's region sorts before "jersey city", but a city match ranks first
+		assertThat(index.suggest("jersey", 10)).extracting(LocationSuggestion::code)
+			.containsExactly("JC_USA", "NEWARK_USA");
+		
+		// "york" and then "york city", a word of New York City
+		assertThat(index.suggest("YORK", 10)).extracting(LocationSuggestion::code)
+			.containsExactly("YORK_UK", "NYC_USA");
+		
+		assertThat(index.suggest("united", 10)).extracting(LocationSuggestion::code)
+			.containsExactly("YORK_UK", "JC_USA", "NEWARK_USA", "NYC_USA");
+	}
+	
+	@Test
+	public void testSuggestIgnoresCaseAndAccents() {
+		assertThat(index.suggest("sao p", 10)).extracting(LocationSuggestion::cityName)
+			.containsExactly("São Paulo");
+		
+		assertThat(index.suggest("  PAU", 10)).extracting(LocationSuggestion::code)
+			.containsExactly("SP_BR");
+	}
+	
+	@Test
+	public void testSuggestHonorsLimit() {
+		assertThat(index.suggest("n", 1)).extracting(LocationSuggestion::code)
+			.containsExactly("NYC_USA");
+		
+		assertThat(index.suggest("x", 10)).isEmpty();
+		assertThat(index.suggest(" ", 10)).isEmpty();
+	}
+	
+	@Test
+	public void testIndexFollowsLocationChanges() {
+		Location tokyo = new Location("TKY_JP", "Tokyo", "Tokyo", "Japan", "JP");
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.ADDED, tokyo));
+		
+		assertThat(index.suggest("tok", 10)).extracting(LocationSuggestion::code).containsExactly("TKY_JP");
+		
+		Location renamed = new Location("NYC_USA", "Manhattan", "New York", "United States of America", "US");
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.UPDATED, renamed));
+		
+		assertThat(index.suggest("manh", 10)).extracting(LocationSuggestion::code).containsExactly("NYC_USA");
+		assertThat(index.suggest("new york c", 10)).isEmpty();
+		
+		index.onLocationChanged(new LocationChangedEvent(LocationChangedEvent.Type.TRASHED, tokyo));
+		
+		assertThat(index.suggest("tok", 10)).isEmpty();
+		assertThat(index.size()).isEqualTo(5);
+	}
+	
+	@Test
+	@Tag(MicroBenchmark.TAG)
+	public void benchmarkSuggest() throws Exception {
+		List<Location> locations = new ArrayList<>();
+		
+		for (int i = 0; i < 20_000; i++) {
+			locations.add(new Location("LOC_" + i, "City " + Integer.toString(i, 36), "Region " + (i % 100), 
+					"Country " + (i % 200), "XX"));
+		}
+		
+		when(repo.findUntrashedCodes()).thenReturn(locations);
+		
+		index = new LocationSuggestIndex(repo);
+		index.load();
+		
+		String[] queries = {"c", "city 1", "region 4", "country 19", "ci", "1a", "zz"};
+		
+		MicroBenchmark.run("LocationSuggestIndex top 10 of 20k locations", 20_000, 200_000, 
+				i -> suggestions = index.suggest(queries[i % queries.length], 10));
+	}
+}
@@ -1,14 +1,19 @@
 package com.skyapi.weatherforecast.realtime;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -16,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skyapi.weatherforecast.GeolocationException;
@@ -43,6 +50,9 @@ public class RealtimeWeatherApiControllerTests {
 	@MockBean 
 	GeolocationService locationService;
 	
+	@MockBean
+	RealtimeWeatherBroadcaster broadcaster;
+	
 	@Test
 	public void testGetShouldReturnStatus400BadRequest() throws Exception {
 		GeolocationException ex = new GeolocationException("Geolocation error");
@@ -163,6 +173,113 @@ public class RealtimeWeatherApiControllerTests {
 				.andDo(print());		
 	}	
 	
+	@Test
+	public void testGetByLocationCodeShouldReturn304NotModified() throws Exception {
+		String locationCode = "SFCA_USA";
+		
+		Location location = new Location();
+		location.setCode(locationCode);
+		location.setCityName("San Franciso");
+		location.setRegionName("California");
+		location.setCountryName("United States of America");
+		location.setCountryCode("US");
+		
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(12);
+		realtimeWeather.setHumidity(32);
+		realtimeWeather.setLastUpdated(new Date(1700000000000L));
+		realtimeWeather.setPrecipitation(88);
+		realtimeWeather.setStatus("Cloudy");
+		realtimeWeather.setWindSpeed(5);
+		realtimeWeather.setLocation(location);
+		
+		Mockito.when(realtimeWeatherService.getByLocationCode(locationCode)).thenReturn(realtimeWeather);
+		
+		String requestURI = END_POINT_PATH + "/" + locationCode;
+		
+		MvcResult result = mockMvc.perform(get(requestURI))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("Last-Modified"))
+				.andReturn();
+		
+		String lastModified = result.getResponse().getHeader("Last-Modified");
+		
+		mockMvc.perform(get(requestURI).header("If-Modified-Since", lastModified))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""))
+				.andDo(print());
+		
+		realtimeWeather.setLastUpdated(new Date(1700000060000L));
+		
+		mockMvc.perform(get(requestURI).header("If-Modified-Since", lastModified))
+				.andExpect(status().isOk())
+				.andDo(print());
+	}
+	
+	@Test
+	public void testBulkUpdateShouldReturnStatusPerItem() throws Exception {
+		RealtimeWeatherBulkDTO newYork = bulkItem("NYC_USA", 12);
+		RealtimeWeatherBulkDTO unknown = bulkItem("ABCDE", 20);
+		RealtimeWeatherBulkDTO invalid = bulkItem("LACA_USA", 120);
+		
+		Mockito.when(realtimeWeatherService.bulkUpdate(Mockito.anyList())).thenReturn(Set.of("NYC_USA"));
+		
+		String bodyContent = mapper.writeValueAsString(List.of(newYork, unknown, invalid));
+		
+		mockMvc.perform(put(END_POINT_PATH).contentType(REQUEST_CONTENT_TYPE).content(bodyContent))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.updated", is(1)))
+				.andExpect(jsonPath("$.rejected", is(2)))
+				.andExpect(jsonPath("$.items[0].status", is("updated")))
+				.andExpect(jsonPath("$.items[1].status", is("not_found")))
+				.andExpect(jsonPath("$.items[2].index", is(2)))
+				.andExpect(jsonPath("$.items[2].location_code", is("LACA_USA")))
+				.andExpect(jsonPath("$.items[2].status", is("invalid")))
+				.andExpect(jsonPath("$.items[2].errors[0]", containsString("Temperature")))
+				.andDo(print());
+		
+		// only valid items reach the service
+		Mockito.verify(realtimeWeatherService).bulkUpdate(Mockito.argThat(list -> list.size() == 2));
+	}
+	
+	@Test
+	public void testBulkUpdateShouldReturn400BadRequestBecauseNoData() throws Exception {
+		mockMvc.perform(put(END_POINT_PATH).contentType(REQUEST_CONTENT_TYPE).content("[]"))
+				.andExpect(status().isBadRequest())
+				.andDo(print());
+	}
+	
+	@Test
+	public void testStreamShouldSubscribeToEachCode() throws Exception {
+		Mockito.when(broadcaster.subscribe(List.of("NYC_USA", "DELHI_IN"))).thenReturn(new SseEmitter());
+		
+		mockMvc.perform(get(END_POINT_PATH + "/stream").param("codes", "NYC_USA,DELHI_IN"))
+				.andExpect(status().isOk())
+				.andExpect(request().asyncStarted())
+				.andDo(print());
+		
+		Mockito.verify(broadcaster).subscribe(List.of("NYC_USA", "DELHI_IN"));
+	}
+	
+	@Test
+	public void testStreamShouldReturn400BadRequestBecauseNoCodes() throws Exception {
+		mockMvc.perform(get(END_POINT_PATH + "/stream").param("codes", " , "))
+				.andExpect(status().isBadRequest())
+				.andDo(print());
+	}
+	
+	private RealtimeWeatherBulkDTO bulkItem(String locationCode, int temperature) {
+		RealtimeWeatherBulkDTO dto = new RealtimeWeatherBulkDTO();
+		dto.setLocationCode(locationCode);
+		dto.setTemperature(temperature);
+		dto.setHumidity(32);
+		dto.setPrecipitation(88);
+		dto.setStatus("Cloudy");
+		dto.setWindSpeed(5);
+		
+		return dto;
+	}
+	
 	@Test
 	public void testUpdateShouldReturn400BadRequest() throws Exception {
 		String locationCode = "ABC_US";
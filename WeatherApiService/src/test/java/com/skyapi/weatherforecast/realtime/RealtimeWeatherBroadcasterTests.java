@@ -0,0 +1,196 @@
+package com.skyapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+public class RealtimeWeatherBroadcasterTests {
+	
+	private ExecutorService sender;
+	
+	private ScheduledExecutorService watchdog;
+	
+	private List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+	
+	private RealtimeWeatherBroadcaster broadcaster;
+	
+	@BeforeEach
+	public void setUp() {
+		sender = Executors.newSingleThreadExecutor();
+		watchdog = Executors.newSingleThreadScheduledExecutor();
+		
+		broadcaster = new RealtimeWeatherBroadcaster(sender, watchdog, 0, 200) {
+			@Override
+			SseEmitter createEmitter(long timeoutMillis) {
+				RecordingEmitter emitter = new RecordingEmitter();
+				emitters.add(emitter);
+				return emitter;
+			}
+		};
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		sender.shutdownNow();
+		watchdog.shutdownNow();
+	}
+
+	@Test
+	public void testChangeIsSentToSubscribersOfTheLocationOnly() throws Exception {
+		broadcaster.subscribe(List.of("NYC_USA", "DELHI_IN"));
+		broadcaster.subscribe(List.of("DELHI_IN"));
+		
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 10)));
+		awaitSender();
+		
+		assertThat(emitters.get(0).sent).containsExactly("NYC_USA:10");
+		assertThat(emitters.get(1).sent).isEmpty();
+		
+		assertThat(broadcaster.getSubscriberCount("DELHI_IN")).isEqualTo(2);
+		assertThat(broadcaster.getSubscriberCount("LACA_USA")).isZero();
+	}
+	
+	@Test
+	public void testMixedCaseSubscriptionGetsChanges() throws Exception {
+		broadcaster.subscribe(List.of("nyc_usa"));
+		
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 10)));
+		awaitSender();
+		
+		assertThat(emitters.get(0).sent).containsExactly("NYC_USA:10");
+		assertThat(broadcaster.getSubscriberCount("NYC_USA")).isEqualTo(1);
+	}
+	
+	@Test
+	public void testSlowSubscriberOnlyGetsLatestValue() throws Exception {
+		broadcaster.subscribe(List.of("NYC_USA"));
+		RecordingEmitter emitter = emitters.get(0);
+		emitter.blockNextSend();
+		
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 10)));
+		emitter.awaitBlockedSend();
+		
+		// published while the first value is still being written
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 11)));
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 12)));
+		
+		emitter.release();
+		awaitSender();
+		
+		assertThat(emitter.sent).containsExactly("NYC_USA:10", "NYC_USA:12");
+	}
+	
+	@Test
+	public void testFailedSendUnsubscribes() throws Exception {
+		broadcaster.subscribe(List.of("NYC_USA"));
+		emitters.get(0).failing = true;
+		
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 10)));
+		awaitSender();
+		
+		assertThat(broadcaster.getSubscriberCount("NYC_USA")).isZero();
+	}
+	
+	// the container would fail the blocked write once the emitter completes; here the test releases it
+	@Test
+	public void testStalledSendUnsubscribes() throws Exception {
+		broadcaster.subscribe(List.of("NYC_USA"));
+		RecordingEmitter emitter = emitters.get(0);
+		emitter.blockNextSend();
+		
+		broadcaster.onRealtimeWeatherChanged(new RealtimeWeatherChangedEvent(realtimeWeather("NYC_USA", 10)));
+		emitter.awaitBlockedSend();
+		
+		assertThat(emitter.completedWithError.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(broadcaster.getSubscriberCount("NYC_USA")).isZero();
+		
+		emitter.release();
+		awaitSender();
+	}
+	
+	private void awaitSender() throws Exception {
+		sender.submit(() -> { }).get(5, TimeUnit.SECONDS);
+	}
+	
+	private RealtimeWeather realtimeWeather(String locationCode, int temperature) {
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(locationCode);
+		realtimeWeather.setTemperature(temperature);
+		realtimeWeather.setStatus("Sunny");
+		
+		return realtimeWeather;
+	}
+	
+	private static class RecordingEmitter extends SseEmitter {
+		
+		private List<String> sent = new CopyOnWriteArrayList<>();
+		
+		private boolean failing;
+		
+		private CountDownLatch blocked;
+		
+		private CountDownLatch released;
+		
+		private CountDownLatch completedWithError = new CountDownLatch(1);
+		
+		private void blockNextSend() {
+			blocked = new CountDownLatch(1);
+			released = new CountDownLatch(1);
+		}
+		
+		private void awaitBlockedSend() throws InterruptedException {
+			blocked.await(5, TimeUnit.SECONDS);
+		}
+		
+		private void release() {
+			released.countDown();
+		}
+		
+		@Override
+		public void completeWithError(Throwable ex) {
+			completedWithError.countDown();
+		}
+		
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (failing) {
+				throw new IOException("Broken pipe");
+			}
+			
+			// the event is built as the text of the fields, followed by the DTO itself
+			List<Object> parts = builder.build().stream().map(data -> data.getData()).toList();
+			
+			String locationCode = parts.get(0).toString().lines()
+					.filter(line -> line.startsWith("id:"))
+					.findFirst().get().substring(3);
+			
+			RealtimeWeatherDTO dto = (RealtimeWeatherDTO) parts.get(1);
+			
+			if (blocked != null && blocked.getCount() > 0) {
+				blocked.countDown();
+				
+				try {
+					released.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			
+			sent.add(locationCode + ":" + dto.getTemperature());
+		}
+	}
+}
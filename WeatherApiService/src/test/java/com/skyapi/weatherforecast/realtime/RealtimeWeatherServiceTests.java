@@ -0,0 +1,120 @@
+package com.skyapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationCache;
+import com.skyapi.weatherforecast.location.LocationCodeIndex;
+import com.skyapi.weatherforecast.location.LocationRepository;
+
+public class RealtimeWeatherServiceTests {
+	
+	private LocationRepository locationRepo;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private RealtimeWeatherBulkRepository bulkRepo;
+	
+	private RealtimeWeatherService service;
+	
+	private Location newYork;
+	
+	@BeforeEach
+	public void setUp() {
+		locationRepo = mock(LocationRepository.class);
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		
+		bulkRepo = mock(RealtimeWeatherBulkRepository.class);
+		RealtimeWeatherWriteBuffer writeBuffer = new RealtimeWeatherWriteBuffer(bulkRepo, eventPublisher, true);
+		
+		service = new RealtimeWeatherService(mock(RealtimeWeatherRepository.class), locationRepo, 
+				mock(LocationCodeIndex.class), eventPublisher, bulkRepo, writeBuffer, 
+				new LocationCache(locationRepo, 100, 60, 60));
+		
+		newYork = new Location("NYC_USA", "New York City", "New York", "United States of America", "US", true);
+		when(locationRepo.findByCode("nyc_usa")).thenReturn(newYork);
+	}
+	
+	// the slot and the events carry the stored code, whatever case the client used
+	@Test
+	public void testWriteBehindWithMixedCaseCode() {
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(20);
+		realtimeWeather.setStatus("Sunny");
+		
+		service.update("nyc_usa", realtimeWeather);
+		
+		ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+		verify(eventPublisher, times(2)).publishEvent(events.capture());
+		
+		assertThat(events.getAllValues())
+			.filteredOn(WeatherDataUpdatedEvent.class::isInstance)
+			.extracting(event -> ((WeatherDataUpdatedEvent) event).getLocationCode())
+			.containsExactly("NYC_USA");
+		
+		assertThat(service.getByLocationCode("nyc_usa")).isSameAs(realtimeWeather);
+		assertThat(service.getByLocationCode("NYC_USA")).isSameAs(realtimeWeather);
+		
+		Map<String, RealtimeWeather> realtimeWeatherByCode = service.getByLocationCodes(List.of("nyc_usa"));
+		
+		assertThat(realtimeWeatherByCode).containsOnlyKeys("nyc_usa");
+		assertThat(realtimeWeatherByCode.get("nyc_usa")).isSameAs(realtimeWeather);
+	}
+	
+	// the broadcaster maps the location of the event, as on the single update path
+	@Test
+	public void testBulkUpdateEventsCarryLocation() {
+		when(locationRepo.findUntrashedIn(anyCollection())).thenReturn(List.of(newYork));
+		
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode("NYC_USA");
+		realtimeWeather.setTemperature(20);
+		realtimeWeather.setStatus("Sunny");
+		
+		assertThat(service.bulkUpdate(List.of(realtimeWeather))).containsExactly("NYC_USA");
+		
+		ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+		verify(eventPublisher, times(2)).publishEvent(events.capture());
+		
+		assertThat(events.getAllValues())
+			.filteredOn(RealtimeWeatherChangedEvent.class::isInstance)
+			.extracting(event -> ((RealtimeWeatherChangedEvent) event).getRealtimeWeather().getLocation())
+			.containsExactly(newYork);
+		
+		// the locations come from the one IN query per chunk
+		verify(locationRepo, never()).findByCode(anyString());
+	}
+	
+	// findUntrashedIn returns the stored code, the row goes in under it
+	@Test
+	public void testBulkUpdateWithMixedCaseCode() {
+		when(locationRepo.findUntrashedIn(anyCollection())).thenReturn(List.of(newYork));
+		
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode("nyc_usa");
+		realtimeWeather.setTemperature(20);
+		realtimeWeather.setStatus("Sunny");
+		
+		assertThat(service.bulkUpdate(List.of(realtimeWeather))).containsExactly("NYC_USA");
+		
+		verify(bulkRepo).upsert(List.of(realtimeWeather));
+		assertThat(realtimeWeather.getLocationCode()).isEqualTo("NYC_USA");
+	}
+}
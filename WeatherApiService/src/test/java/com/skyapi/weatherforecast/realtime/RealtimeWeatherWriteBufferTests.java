@@ -0,0 +1,106 @@
+package com.skyapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.skyapi.weatherforecast.WeatherDataUpdatedEvent;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+public class RealtimeWeatherWriteBufferTests {
+	
+	private RealtimeWeatherBulkRepository bulkRepo;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private RealtimeWeatherWriteBuffer buffer;
+	
+	@BeforeEach
+	public void setUp() {
+		bulkRepo = mock(RealtimeWeatherBulkRepository.class);
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		buffer = new RealtimeWeatherWriteBuffer(bulkRepo, eventPublisher, true);
+	}
+	
+	@Test
+	public void testLastWriterWinsOnLastUpdated() {
+		RealtimeWeather newer = realtimeWeather("NYC_USA", 20, 2000);
+		RealtimeWeather older = realtimeWeather("NYC_USA", 10, 1000);
+		
+		buffer.put(newer);
+		buffer.put(older);
+		
+		assertThat(buffer.get("NYC_USA")).isSameAs(newer);
+		assertThat(buffer.getDirtyCount()).isEqualTo(1);
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testFlushPersistsDirtySlotsInOneBatch() {
+		buffer.put(realtimeWeather("NYC_USA", 10, 1000));
+		buffer.put(realtimeWeather("NYC_USA", 12, 2000));
+		buffer.put(realtimeWeather("DELHI_IN", 35, 1000));
+		
+		buffer.flush();
+		
+		ArgumentCaptor<List<RealtimeWeather>> captor = ArgumentCaptor.forClass(List.class);
+		verify(bulkRepo, times(1)).upsert(captor.capture());
+		
+		assertThat(captor.getValue()).hasSize(2);
+		assertThat(buffer.getDirtyCount()).isZero();
+		assertThat(buffer.get("NYC_USA")).isNull();
+		
+		verify(eventPublisher, times(2)).publishEvent(any(WeatherDataUpdatedEvent.class));
+		
+		buffer.flush();
+		verify(bulkRepo, times(1)).upsert(anyList());
+	}
+	
+	@Test
+	public void testFailedFlushKeepsSlotsDirty() {
+		buffer.put(realtimeWeather("NYC_USA", 10, 1000));
+		
+		doThrow(new QueryTimeoutException("timeout")).when(bulkRepo).upsert(anyList());
+		
+		buffer.flush();
+		
+		assertThat(buffer.get("NYC_USA")).isNotNull();
+		verify(eventPublisher, never()).publishEvent(any(WeatherDataUpdatedEvent.class));
+	}
+	
+	@Test
+	public void testDiscardOlderThan() {
+		buffer.put(realtimeWeather("NYC_USA", 10, 1000));
+		buffer.put(realtimeWeather("DELHI_IN", 35, 3000));
+		
+		buffer.discardOlderThan("NYC_USA", new Date(2000));
+		buffer.discardOlderThan("DELHI_IN", new Date(2000));
+		
+		assertThat(buffer.get("NYC_USA")).isNull();
+		assertThat(buffer.get("DELHI_IN")).isNotNull();
+	}
+	
+	private RealtimeWeather realtimeWeather(String locationCode, int temperature, long lastUpdated) {
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(locationCode);
+		realtimeWeather.setTemperature(temperature);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdated(new Date(lastUpdated));
+		
+		return realtimeWeather;
+	}
+}